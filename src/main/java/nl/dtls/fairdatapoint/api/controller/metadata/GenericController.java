@@ -25,28 +25,33 @@ package nl.dtls.fairdatapoint.api.controller.metadata;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
-import nl.dtls.fairdatapoint.database.rdf.repository.generic.GenericMetadataRepository;
 import nl.dtls.fairdatapoint.entity.exception.ForbiddenException;
 import nl.dtls.fairdatapoint.entity.exception.ValidationException;
 import nl.dtls.fairdatapoint.entity.metadata.Metadata;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataChildIndex;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataChildIndexEntry;
 import nl.dtls.fairdatapoint.entity.metadata.MetadataState;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataVersion;
+import nl.dtls.fairdatapoint.entity.metadata.RenderedMetadata;
 import nl.dtls.fairdatapoint.entity.resource.ResourceDefinition;
 import nl.dtls.fairdatapoint.entity.resource.ResourceDefinitionChild;
 import nl.dtls.fairdatapoint.entity.user.User;
+import nl.dtls.fairdatapoint.service.metadata.children.MetadataChildIndexCache;
 import nl.dtls.fairdatapoint.service.metadata.common.MetadataService;
 import nl.dtls.fairdatapoint.service.metadata.enhance.MetadataEnhancer;
 import nl.dtls.fairdatapoint.service.metadata.exception.MetadataServiceException;
 import nl.dtls.fairdatapoint.service.metadata.factory.MetadataServiceFactory;
+import nl.dtls.fairdatapoint.service.metadata.path.MetadataPathCache;
+import nl.dtls.fairdatapoint.service.metadata.render.MetadataRenderCache;
 import nl.dtls.fairdatapoint.service.metadata.state.MetadataStateService;
+import nl.dtls.fairdatapoint.service.metadata.version.MetadataVersionCache;
 import nl.dtls.fairdatapoint.service.resource.ResourceDefinitionService;
 import nl.dtls.fairdatapoint.service.schema.MetadataSchemaService;
-import nl.dtls.fairdatapoint.service.search.SearchFilterCache;
 import nl.dtls.fairdatapoint.service.user.CurrentUserService;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
-import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -54,12 +59,17 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import javax.servlet.http.HttpServletResponse;
 import java.net.URI;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static java.lang.String.format;
 import static nl.dtls.fairdatapoint.util.HttpUtil.*;
@@ -76,6 +86,12 @@ public class GenericController {
     private static final String MSG_ERROR_DRAFT_FORBIDDEN =
             "You are not allow to view this record in state DRAFT";
 
+    private static final String VARY_HEADERS = "Accept, Authorization";
+
+    private static final String PARAM_FORMAT = "format";
+
+    private static final String REL_AFTER = "after";
+
     @Autowired
     @Qualifier("persistentUrl")
     private String persistentUrl;
@@ -99,10 +115,16 @@ public class GenericController {
     private CurrentUserService currentUserService;
 
     @Autowired
-    private GenericMetadataRepository metadataRepository;
+    private MetadataVersionCache metadataVersionCache;
+
+    @Autowired
+    private MetadataRenderCache metadataRenderCache;
 
     @Autowired
-    private SearchFilterCache searchFilterCache;
+    private MetadataChildIndexCache metadataChildIndexCache;
+
+    @Autowired
+    private MetadataPathCache metadataPathCache;
 
     @Operation(hidden = true)
     @GetMapping(path = {"/spec", "{oUrlPrefix:[^.]+}/spec"}, produces = "!application/json")
@@ -121,7 +143,8 @@ public class GenericController {
     )
     public Model getMetaDataExpanded(
             @PathVariable final Optional<String> oUrlPrefix,
-            @PathVariable final Optional<String> oRecordId
+            @PathVariable final Optional<String> oRecordId,
+            final ServletWebRequest webRequest
     ) throws MetadataServiceException {
         // 1. Init
         final Model resultRdf = new LinkedHashModel();
@@ -130,34 +153,34 @@ public class GenericController {
         final MetadataService metadataService = metadataServiceFactory.getMetadataServiceByUrlPrefix(urlPrefix);
         final ResourceDefinition rd = resourceDefinitionService.getByUrlPrefix(urlPrefix);
 
-        // 2. Get entity
-        IRI entityUri = getMetadataIRI(persistentUrl, urlPrefix, recordId);
-        Model entity = metadataService.retrieve(entityUri);
+        // 2. Check if client has the current version
+        final IRI entityUri = getMetadataIRI(persistentUrl, urlPrefix, recordId);
+        final Optional<User> oCurrentUser = currentUserService.getCurrentUser();
+        if (checkNotModified(webRequest, metadataVersionCache.getWithAncestors(entityUri), oCurrentUser)) {
+            return null;
+        }
+
+        // 3. Get entity
+        final Model entity = metadataService.retrieve(entityUri);
         resultRdf.addAll(entity);
 
-        // 3. Check if it is DRAFT
+        // 4. Check if it is DRAFT
         final Metadata state = metadataStateService.get(entityUri);
-        final Optional<User> oCurrentUser = currentUserService.getCurrentUser();
         if (state.getState().equals(MetadataState.DRAFT) && oCurrentUser.isEmpty()) {
             throw new ForbiddenException(MSG_ERROR_DRAFT_FORBIDDEN);
         }
 
-        // 4. Enhance
+        // 5. Enhance
         metadataEnhancer.enhanceWithResourceDefinition(entityUri, rd, resultRdf);
 
-        // 5. Get parent
-        while (true) {
-            final IRI parentUri = i(getStringObjectBy(entity, entityUri, DCTERMS.IS_PART_OF));
-            if (parentUri == null) {
-                break;
-            }
-            final Model parent = metadataService.retrieve(parentUri);
-            resultRdf.addAll(parent);
-            entity = parent;
-            entityUri = parentUri;
-        }
+        // 6. Get parents
+        final List<IRI> ancestorUris = metadataPathCache.getPath(entityUri).getAncestors()
+                .stream()
+                .map(ancestor -> i(ancestor.getUri()))
+                .toList();
+        metadataService.retrieve(ancestorUris).forEach(resultRdf::addAll);
 
-        // 5. Create response
+        // 7. Create response
         return resultRdf;
     }
 
@@ -168,7 +191,8 @@ public class GenericController {
     )
     public Model getMetaData(
             @PathVariable final Optional<String> oUrlPrefix,
-            @PathVariable final Optional<String> oRecordId
+            @PathVariable final Optional<String> oRecordId,
+            final ServletWebRequest webRequest
     ) throws MetadataServiceException {
         // 1. Init
         final Model resultRdf = new LinkedHashModel();
@@ -179,35 +203,54 @@ public class GenericController {
         // 2. Get resource definition
         final ResourceDefinition rd = resourceDefinitionService.getByUrlPrefix(urlPrefix);
 
-        // 3. Get entity
+        // 3. Check if client has the current version
         final IRI entityUri = getMetadataIRI(persistentUrl, urlPrefix, recordId);
+        final Optional<User> oCurrentUser = currentUserService.getCurrentUser();
+        final List<MetadataVersion> versions = metadataVersionCache.get(entityUri).stream().toList();
+        if (checkNotModified(webRequest, versions, oCurrentUser)) {
+            return null;
+        }
+
+        // 4. Get already rendered response
+        final Optional<RenderedMetadata> oRendered =
+                metadataRenderCache.get(entityUri, oCurrentUser.isPresent());
+        if (oRendered.isPresent()) {
+            return oRendered.get();
+        }
+        final long renderGeneration = metadataRenderCache.getGeneration();
+
+        // 5. Get entity
         final Model entity = metadataService.retrieve(entityUri);
         resultRdf.addAll(entity);
 
-        // 4. Check if it is DRAFT
+        // 6. Check if it is DRAFT
         final Metadata state = metadataStateService.get(entityUri);
-        final Optional<User> oCurrentUser = currentUserService.getCurrentUser();
         if (state.getState().equals(MetadataState.DRAFT) && oCurrentUser.isEmpty()) {
             throw new ForbiddenException(MSG_ERROR_DRAFT_FORBIDDEN);
         }
 
-        // 5. Filter children
-        for (ResourceDefinitionChild rdChild : rd.getChildren()) {
-            final IRI relationUri = i(rdChild.getRelationUri());
-            for (org.eclipse.rdf4j.model.Value childUri : getObjectsBy(entity, entityUri, relationUri)) {
-                final Metadata childState = metadataStateService.get(i(childUri.stringValue()));
-                if (!(childState.getState().equals(MetadataState.PUBLISHED) || oCurrentUser.isPresent())) {
-                    resultRdf.remove(entityUri, relationUri, childUri);
-                }
+        // 7. Filter children
+        if (oCurrentUser.isEmpty()) {
+            final Map<IRI, List<Value>> childrenByRelation = new HashMap<>();
+            for (ResourceDefinitionChild rdChild : rd.getChildren()) {
+                final IRI relationUri = i(rdChild.getRelationUri());
+                childrenByRelation.put(relationUri, getObjectsBy(entity, entityUri, relationUri));
             }
+            final Set<String> published = metadataStateService.getPublished(
+                    childrenByRelation.values().stream().flatMap(List::stream).map(Value::stringValue).toList()
+            );
+            childrenByRelation.forEach((relationUri, children) -> children
+                    .stream()
+                    .filter(childUri -> !published.contains(childUri.stringValue()))
+                    .forEach(childUri -> resultRdf.remove(entityUri, relationUri, childUri)));
         }
 
-        // 6. Add links
+        // 8. Add links
         metadataEnhancer.enhanceWithLinks(entityUri, entity, rd, persistentUrl, resultRdf);
         metadataEnhancer.enhanceWithResourceDefinition(entityUri, rd, resultRdf);
 
-        // 7. Create response
-        return resultRdf;
+        // 9. Create response
+        return metadataRenderCache.put(entityUri, oCurrentUser.isPresent(), resultRdf, renderGeneration);
     }
 
     @Operation(hidden = true)
@@ -243,10 +286,7 @@ public class GenericController {
         // 5. Store metadata
         final Model metadata = metadataService.store(reqDto, uri, rd);
 
-        // 6. Invalidate search filters cache
-        searchFilterCache.clearCache();
-
-        // 7. Create response
+        // 6. Create response
         return ResponseEntity
                 .created(URI.create(uri.stringValue()))
                 .body(metadata);
@@ -285,10 +325,7 @@ public class GenericController {
         // 4. Store metadata
         final Model metadata = metadataService.update(reqDto, uri, rd);
 
-        // 5. Invalidate search filters cache
-        searchFilterCache.clearCache();
-
-        // 6. Create response
+        // 5. Create response
         return ResponseEntity
                 .ok(metadata);
     }
@@ -316,10 +353,7 @@ public class GenericController {
         // 4. Store metadata
         metadataService.delete(uri, rd);
 
-        // 5. Invalidate search filters cache
-        searchFilterCache.clearCache();
-
-        // 6. Create response
+        // 5. Create response
         return ResponseEntity.noContent().build();
     }
 
@@ -333,7 +367,9 @@ public class GenericController {
             @PathVariable final Optional<String> oRecordId,
             @PathVariable final String childPrefix,
             @RequestParam(defaultValue = "0") final int page,
-            @RequestParam(defaultValue = "10") final int size
+            @RequestParam(defaultValue = "10") final int size,
+            @RequestParam(required = false) final String cursor,
+            final ServletWebRequest webRequest
     ) throws MetadataServiceException, MetadataRepositoryException {
         // 1. Init
         final Model resultRdf = new LinkedHashModel();
@@ -341,18 +377,24 @@ public class GenericController {
         final String recordId = oRecordId.orElse("");
         final MetadataService metadataService = metadataServiceFactory.getMetadataServiceByUrlPrefix(urlPrefix);
 
-        // 2. Get entity
+        // 2. Check if client has the current version (changes of children update the parent)
         final IRI entityUri = getMetadataIRI(persistentUrl, urlPrefix, recordId);
-        final Model entity = metadataService.retrieve(entityUri);
+        final Optional<User> oCurrentUser = currentUserService.getCurrentUser();
+        final List<MetadataVersion> versions = metadataVersionCache.get(entityUri).stream().toList();
+        if (checkNotModified(webRequest, versions, oCurrentUser)) {
+            return null;
+        }
+
+        // 3. Check if entity exists
+        metadataService.retrieve(entityUri);
 
-        // 3. Check if it is draft
+        // 4. Check if it is draft
         final Metadata state = metadataStateService.get(entityUri);
-        final Optional<User> oCurrentUser = currentUserService.getCurrentUser();
         if (state.getState().equals(MetadataState.DRAFT) && oCurrentUser.isEmpty()) {
             throw new ForbiddenException(MSG_ERROR_DRAFT_FORBIDDEN);
         }
 
-        // 4. Get Children
+        // 5. Get Children
         final ResourceDefinition rd = resourceDefinitionService.getByUrlPrefix(urlPrefix);
         final ResourceDefinition currentChildRd = resourceDefinitionService.getByUrlPrefix(childPrefix);
         final MetadataService childMetadataService = metadataServiceFactory.getMetadataServiceByUrlPrefix(childPrefix);
@@ -361,40 +403,43 @@ public class GenericController {
             if (rdChild.getResourceDefinitionUuid().equals(currentChildRd.getUuid())) {
                 final IRI relationUri = i(rdChild.getRelationUri());
 
-                // 4.1 Get all titles for sort
-                final Map<String, String> titles = metadataRepository.findChildTitles(entityUri, relationUri);
-
-                // 4.2 Get all children sorted
-                final List<Value> children = getObjectsBy(entity, entityUri, relationUri)
-                        .stream()
-                        .filter(childUri -> getResourceNameForChild(childUri.toString()).equals(childPrefix))
-                        .filter(childUri -> {
-                            if (oCurrentUser.isPresent()) {
-                                return true;
-                            }
-                            final Metadata childState = metadataStateService.get(i(childUri.stringValue()));
-                            return childState.getState().equals(MetadataState.PUBLISHED);
-                        })
-                        .sorted((value1, value2) -> {
-                            final String title1 = titles.get(value1.toString());
-                            final String title2 = titles.get(value2.toString());
-                            return title1.compareTo(title2);
-                        })
-                        .toList();
-
-                // 4.3 Retrieve children metadata only for requested page
-                final int childrenCount = children.size();
-                children.stream().skip((long) page * size).limit(size)
-                        .map(childUri -> retrieveChildModel(childMetadataService, childUri))
-                        .flatMap(Optional::stream)
+                // 5.1 Get children sorted by title
+                final MetadataChildIndex childIndex = metadataChildIndexCache.get(
+                        entityUri,
+                        relationUri,
+                        childPrefix,
+                        childUri -> getResourceNameForChild(childUri).equals(childPrefix)
+                );
+                final boolean publishedOnly = oCurrentUser.isEmpty();
+
+                // 5.2 Select requested page (by cursor or by page number)
+                final List<MetadataChildIndexEntry> children = cursor == null
+                        ? childIndex.getPage(publishedOnly, page, size)
+                        : childIndex.getPageAfter(publishedOnly, MetadataChildIndexEntry.fromCursor(cursor), size);
+
+                // 5.3 Retrieve children metadata only for requested page (in one batch)
+                childMetadataService
+                        .retrieve(children.stream().map(child -> i(child.getUri())).toList())
                         .forEach(resultRdf::addAll);
 
-                // 4.4 Set Link headers and send response
+                // 5.4 Set Link headers (page links, or cursor links when paging by cursor) and send response
+                final List<String> links = new LinkedList<>();
+                if (cursor == null) {
+                    links.add(createLinkHeader(
+                            entityUri.stringValue(), childPrefix, childIndex.count(publishedOnly), page, size
+                    ));
+                }
+                else {
+                    links.add(createCursorLink(entityUri.stringValue(), childPrefix, null, size));
+                }
+                if (!children.isEmpty()) {
+                    final MetadataChildIndexEntry lastChild = children.get(children.size() - 1);
+                    if (childIndex.hasAfter(publishedOnly, lastChild)) {
+                        links.add(createCursorLink(entityUri.stringValue(), childPrefix, lastChild.toCursor(), size));
+                    }
+                }
                 final HttpHeaders responseHeaders = new HttpHeaders();
-                responseHeaders.set(
-                        "Link",
-                        createLinkHeader(entityUri.stringValue(), childPrefix, childrenCount, page, size)
-                );
+                responseHeaders.set("Link", String.join(", ", links));
                 return ResponseEntity.ok().headers(responseHeaders).body(resultRdf);
             }
         }
@@ -403,6 +448,23 @@ public class GenericController {
         return ResponseEntity.ok(resultRdf);
     }
 
+    private boolean checkNotModified(
+            ServletWebRequest webRequest, List<MetadataVersion> versions, Optional<User> oCurrentUser
+    ) {
+        if (versions.isEmpty()) {
+            return false;
+        }
+        final HttpServletResponse response = webRequest.getResponse();
+        if (response != null) {
+            response.addHeader(HttpHeaders.VARY, VARY_HEADERS);
+        }
+        final String variant = format("%s;%s",
+                webRequest.getHeader(HttpHeaders.ACCEPT), webRequest.getParameter(PARAM_FORMAT));
+        final String eTag = metadataVersionCache.computeETag(versions, oCurrentUser.isPresent(), variant);
+        final Instant lastModified = metadataVersionCache.computeLastModified(versions);
+        return webRequest.checkNotModified(eTag, lastModified.toEpochMilli());
+    }
+
     private String getResourceNameForChild(String url) {
         final String[] parts = url
                 .replace(persistentUrl, "")
@@ -438,17 +500,14 @@ public class GenericController {
         return String.join(", ", links);
     }
 
-    private Optional<Model> retrieveChildModel(MetadataService childMetadataService, Value childUri) {
-        try {
-            final Model childModel = childMetadataService.retrieve(i(childUri.stringValue()));
-            return Optional.of(childModel);
-        }
-        catch (MetadataServiceException exception) {
-            return Optional.empty();
-        }
-    }
-
     private String createLink(String entityUrl, String childPrefix, int page, int size, String rel) {
         return format("<%s/page/%s?page=%d&size=%d>; rel=\"%s\"", entityUrl, childPrefix, page, size, rel);
     }
+
+    private String createCursorLink(String entityUrl, String childPrefix, String cursor, int size) {
+        if (cursor == null) {
+            return format("<%s/page/%s?size=%d>; rel=\"first\"", entityUrl, childPrefix, size);
+        }
+        return format("<%s/page/%s?cursor=%s&size=%d>; rel=\"%s\"", entityUrl, childPrefix, cursor, size, REL_AFTER);
+    }
 }
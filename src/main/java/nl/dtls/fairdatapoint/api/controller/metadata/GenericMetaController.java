@@ -30,16 +30,17 @@ import nl.dtls.fairdatapoint.api.dto.metadata.MetaPathDTO;
 import nl.dtls.fairdatapoint.api.dto.metadata.MetaStateChangeDTO;
 import nl.dtls.fairdatapoint.api.dto.metadata.MetaStateDTO;
 import nl.dtls.fairdatapoint.entity.metadata.Metadata;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataPathEntry;
 import nl.dtls.fairdatapoint.entity.resource.ResourceDefinition;
 import nl.dtls.fairdatapoint.service.member.MemberService;
 import nl.dtls.fairdatapoint.service.metadata.common.MetadataService;
 import nl.dtls.fairdatapoint.service.metadata.exception.MetadataServiceException;
 import nl.dtls.fairdatapoint.service.metadata.factory.MetadataServiceFactory;
+import nl.dtls.fairdatapoint.service.metadata.path.MetadataPathCache;
 import nl.dtls.fairdatapoint.service.metadata.state.MetadataStateService;
 import nl.dtls.fairdatapoint.service.resource.ResourceDefinitionService;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
-import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.bind.annotation.*;
@@ -50,17 +51,12 @@ import java.util.Map;
 import java.util.Optional;
 
 import static nl.dtls.fairdatapoint.entity.metadata.MetadataGetter.getMetadataIdentifier;
-import static nl.dtls.fairdatapoint.entity.metadata.MetadataGetter.getTitle;
 import static nl.dtls.fairdatapoint.util.HttpUtil.getMetadataIRI;
-import static nl.dtls.fairdatapoint.util.RdfUtil.getStringObjectBy;
-import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.i;
 
 @Tag(name = "Metadata")
 @RestController
 public class GenericMetaController {
 
-    private static final int SUPPORTED_URL_FRAGMENTS = 3;
-
     @Autowired
     @Qualifier("persistentUrl")
     private String persistentUrl;
@@ -77,6 +73,9 @@ public class GenericMetaController {
     @Autowired
     private ResourceDefinitionService resourceDefinitionService;
 
+    @Autowired
+    private MetadataPathCache metadataPathCache;
+
     @Operation(hidden = true)
     @GetMapping(path = {"meta", "{oUrlPrefix:[^.]+}/{oRecordId:[^.]+}/meta"})
     public MetaDTO getMeta(
@@ -84,17 +83,17 @@ public class GenericMetaController {
             @PathVariable final Optional<String> oRecordId
     ) throws MetadataServiceException {
         // 1. Init
-        String urlPrefix = oUrlPrefix.orElse("");
+        final String urlPrefix = oUrlPrefix.orElse("");
         final String recordId = oRecordId.orElse("");
         final MetadataService metadataService =
                 metadataServiceFactory.getMetadataServiceByUrlPrefix(urlPrefix);
 
         // 2. Get resource definition
-        ResourceDefinition definition = resourceDefinitionService.getByUrlPrefix(urlPrefix);
+        final ResourceDefinition definition = resourceDefinitionService.getByUrlPrefix(urlPrefix);
 
         // 3. Get and check existence entity
-        IRI entityUri = getMetadataIRI(persistentUrl, urlPrefix, recordId);
-        Model entity = metadataService.retrieve(entityUri);
+        final IRI entityUri = getMetadataIRI(persistentUrl, urlPrefix, recordId);
+        final Model entity = metadataService.retrieve(entityUri);
 
         // 4. Get member
         final String entityId = getMetadataIdentifier(entity).getIdentifier().getLabel();
@@ -107,20 +106,12 @@ public class GenericMetaController {
 
         // 6. Make path map
         final Map<String, MetaPathDTO> pathMap = new HashMap<>();
-        while (true) {
-            final MetaPathDTO entry = new MetaPathDTO();
-            entry.setResourceDefinitionUuid(definition.getUuid());
-            entry.setTitle(getTitle(entity).stringValue());
-            final IRI parentUri = i(getStringObjectBy(entity, entityUri, DCTERMS.IS_PART_OF));
-            Optional.ofNullable(parentUri).map(IRI::toString).ifPresent(entry::setParent);
-            pathMap.put(entityUri.toString(), entry);
-            if (parentUri == null) {
-                break;
-            }
-            entity = metadataService.retrieve(parentUri);
-            entityUri = parentUri;
-            urlPrefix = getResourceNameForList(parentUri.toString());
-            definition = resourceDefinitionService.getByUrlPrefix(urlPrefix);
+        for (MetadataPathEntry entry : metadataPathCache.getPath(entityUri).getEntries()) {
+            pathMap.put(entry.getUri(), new MetaPathDTO(
+                    entry.getResourceDefinitionUuid(),
+                    entry.getTitle(),
+                    entry.getParent()
+            ));
         }
 
         return new MetaDTO(member, state, pathMap);
@@ -149,19 +140,4 @@ public class GenericMetaController {
         return reqDto;
     }
 
-    private String getResourceNameForList(String url) throws MetadataServiceException {
-        final String fixedUrl = url
-                .replace(persistentUrl, "")
-                .replace("/meta", "")
-                .replace("/state", "");
-
-        final String[] parts = fixedUrl.split("/");
-        if (parts.length == 1) {
-            return "";
-        }
-        if (parts.length != SUPPORTED_URL_FRAGMENTS) {
-            throw new MetadataServiceException("Unsupported URL");
-        }
-        return parts[1];
-    }
 }
@@ -26,6 +26,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import nl.dtls.fairdatapoint.api.dto.resource.ResourceDefinitionChangeDTO;
 import nl.dtls.fairdatapoint.api.dto.resource.ResourceDefinitionDTO;
 import nl.dtls.fairdatapoint.entity.exception.ResourceNotFoundException;
+import nl.dtls.fairdatapoint.service.metadata.path.MetadataPathCache;
 import nl.dtls.fairdatapoint.service.resource.ResourceDefinitionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -50,6 +51,9 @@ public class ResourceDefinitionController {
     @Autowired
     private ResourceDefinitionService resourceDefinitionService;
 
+    @Autowired
+    private MetadataPathCache metadataPathCache;
+
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<ResourceDefinitionDTO>> getResourceDefinitions() {
         final List<ResourceDefinitionDTO> dto = resourceDefinitionService.getAll();
@@ -61,6 +65,7 @@ public class ResourceDefinitionController {
             @RequestBody @Valid ResourceDefinitionChangeDTO reqDto
     ) throws BindException {
         final ResourceDefinitionDTO dto = resourceDefinitionService.create(reqDto);
+        metadataPathCache.clearCache();
         return new ResponseEntity<>(dto, HttpStatus.OK);
     }
 
@@ -83,6 +88,7 @@ public class ResourceDefinitionController {
             @RequestBody @Valid ResourceDefinitionChangeDTO reqDto
     ) throws ResourceNotFoundException, BindException {
         final Optional<ResourceDefinitionDTO> oDto = resourceDefinitionService.update(uuid, reqDto);
+        metadataPathCache.clearCache();
         if (oDto.isPresent()) {
             return new ResponseEntity<>(oDto.get(), HttpStatus.OK);
         }
@@ -96,6 +102,7 @@ public class ResourceDefinitionController {
     public ResponseEntity<Void> deleteResourceDefinitions(@PathVariable final String uuid)
             throws ResourceNotFoundException {
         final boolean result = resourceDefinitionService.deleteByUuid(uuid);
+        metadataPathCache.clearCache();
         if (result) {
             return ResponseEntity.noContent().build();
         }
@@ -25,34 +25,53 @@ package nl.dtls.fairdatapoint.api.controller.search;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import nl.dtls.fairdatapoint.api.dto.search.*;
 import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
+import nl.dtls.fairdatapoint.service.search.SearchResultPage;
 import nl.dtls.fairdatapoint.service.search.SearchService;
-import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.String.format;
 
 @Tag(name = "Search")
 @RestController
 @RequestMapping("/search")
 public class SearchController {
 
+    private static final String REL_AFTER = "after";
+
+    private static final String WARNING_TRUNCATED = "199 - \"Results are truncated\"";
+
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    @Qualifier("persistentUrl")
+    private String persistentUrl;
+
     @PostMapping(
             path = "",
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
     public ResponseEntity<List<SearchResultDTO>> search(
-            @RequestBody @Valid SearchQueryDTO reqDto
+            @RequestBody @Valid SearchQueryDTO reqDto,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor
     ) throws MetadataRepositoryException {
-        return ResponseEntity.ok(searchService.search(reqDto));
+        return toResponse("", searchService.search(reqDto, limit, cursor));
     }
 
     @PostMapping(
@@ -61,9 +80,57 @@ public class SearchController {
             produces = MediaType.APPLICATION_JSON_VALUE
     )
     public ResponseEntity<List<SearchResultDTO>> searchAssociations(
+            @RequestBody @Valid SearchQueryDTO reqDto,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor
+    ) throws MetadataRepositoryException {
+        return toResponse("/associations", searchService.searchAssociations(reqDto, limit, cursor));
+    }
+
+    @PostMapping(
+            path = "/facets",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<SearchFilterDTO>> getSearchFacets(
             @RequestBody @Valid SearchQueryDTO reqDto
     ) throws MetadataRepositoryException {
-        return ResponseEntity.ok(searchService.searchAssociations(reqDto));
+        return ResponseEntity.ok(searchService.getFacets(reqDto));
+    }
+
+    @PostMapping(
+            path = "/associations/facets",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<SearchFilterDTO>> getSearchAssociationFacets(
+            @RequestBody @Valid SearchQueryDTO reqDto
+    ) throws MetadataRepositoryException {
+        return ResponseEntity.ok(searchService.getAssociationFacets(reqDto));
+    }
+
+    @PostMapping(path = "/index/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void rebuildSearchIndex() throws MetadataRepositoryException {
+        searchService.rebuildIndex();
+    }
+
+    @GetMapping(
+            path = "/index/ontologies",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<OntologyIndexStatusDTO>> getOntologyIndexStatus() {
+        return ResponseEntity.ok(searchService.getOntologyIndexStatus());
+    }
+
+    @GetMapping(
+            path = "/stats",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<SearchStatsDTO> getSearchStats() throws MetadataRepositoryException {
+        return ResponseEntity.ok(searchService.getStats());
     }
 
     @GetMapping(
@@ -79,10 +146,25 @@ public class SearchController {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    public ResponseEntity<List<SearchResultDTO>> searchWithQuery(
-            @RequestBody @Valid SearchQueryVariablesDTO reqDto
-    ) throws MetadataRepositoryException, MalformedQueryException {
-        return ResponseEntity.ok(searchService.search(reqDto));
+    public WebAsyncTask<ResponseEntity<List<SearchResultDTO>>> searchWithQuery(
+            @RequestBody @Valid SearchQueryVariablesDTO reqDto,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        // Evaluated asynchronously so that a timeout or a disconnected client cancels the query
+        final AtomicReference<Thread> worker = new AtomicReference<>();
+        final WebAsyncTask<ResponseEntity<List<SearchResultDTO>>> task = new WebAsyncTask<>(() -> {
+            worker.set(Thread.currentThread());
+            try {
+                return toResponse("/query", searchService.search(reqDto, limit, cursor));
+            }
+            finally {
+                worker.set(null);
+            }
+        });
+        task.onTimeout(cancelQuery(worker));
+        task.onError(cancelQuery(worker));
+        return task;
     }
 
     @GetMapping(
@@ -102,4 +184,25 @@ public class SearchController {
         return ResponseEntity.ok(searchService.resetSearchFilters());
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> Callable<T> cancelQuery(AtomicReference<Thread> worker) {
+        return () -> {
+            searchService.cancelQuery(worker.get());
+            // No result of its own, the default handling applies (e.g. 503 on timeout)
+            return (T) CallableProcessingInterceptor.RESULT_NONE;
+        };
+    }
+
+    private ResponseEntity<List<SearchResultDTO>> toResponse(String path, SearchResultPage page) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.isTruncated()) {
+            response.header(HttpHeaders.WARNING, WARNING_TRUNCATED);
+        }
+        if (page.getNextCursor().isPresent()) {
+            response.header(HttpHeaders.LINK, format("<%s/search%s?limit=%d&cursor=%s>; rel=\"%s\"",
+                    persistentUrl, path, page.getLimit(), page.getNextCursor().get(), REL_AFTER));
+        }
+        return response.body(page.getResults());
+    }
+
 }
@@ -28,9 +28,13 @@ import nl.dtls.fairdatapoint.api.dto.search.SearchSavedQueryChangeDTO;
 import nl.dtls.fairdatapoint.api.dto.search.SearchSavedQueryDTO;
 import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
 import nl.dtls.fairdatapoint.entity.exception.ResourceNotFoundException;
+import nl.dtls.fairdatapoint.service.search.SearchResultPage;
 import nl.dtls.fairdatapoint.service.search.SearchService;
+import nl.dtls.fairdatapoint.service.search.query.SearchSavedQueryMaterializer;
+import nl.dtls.fairdatapoint.service.search.query.SearchSavedQueryResults;
 import nl.dtls.fairdatapoint.service.search.query.SearchSavedQueryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -49,6 +53,8 @@ import static java.lang.String.format;
 public class SearchSavedQueryController {
 
     private static final String NOT_FOUND_MSG = "Saved query '%s' doesn't exist";
+    private static final String WARNING_STALE = "110 - \"Response is Stale\"";
+    private static final String WARNING_TRUNCATED = "199 - \"Results are truncated\"";
 
     @Autowired
     private SearchSavedQueryService searchSavedQueryService;
@@ -56,6 +62,9 @@ public class SearchSavedQueryController {
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    private SearchSavedQueryMaterializer searchSavedQueryMaterializer;
+
     @GetMapping(path = "", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<SearchSavedQueryDTO>> getAll() {
         return new ResponseEntity<>(searchSavedQueryService.getAll(), HttpStatus.OK);
@@ -79,12 +88,31 @@ public class SearchSavedQueryController {
             @PathVariable final String uuid
     ) throws ResourceNotFoundException, MetadataRepositoryException {
         final Optional<SearchSavedQueryDTO> oDto = searchSavedQueryService.getSingle(uuid);
-        if (oDto.isPresent()) {
-            return ResponseEntity.ok(searchService.search(oDto.get()));
-        }
-        else {
+        if (oDto.isEmpty()) {
             throw new ResourceNotFoundException(format(NOT_FOUND_MSG, uuid));
         }
+        final SearchSavedQueryDTO dto = oDto.get();
+        if (!dto.isMaterialized()) {
+            final SearchResultPage page = searchService.search(dto);
+            final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.isTruncated()) {
+                response.header(HttpHeaders.WARNING, WARNING_TRUNCATED);
+            }
+            return response.body(page.getResults());
+        }
+        // Serve materialized results, reporting their age and whether they are stale
+        final SearchSavedQueryResults results = searchSavedQueryMaterializer.get(uuid, dto.getVariables());
+        final ResponseEntity.BodyBuilder response = ResponseEntity
+                .ok()
+                .lastModified(results.getComputedAt())
+                .header(HttpHeaders.AGE, Long.toString(results.getAge().toSeconds()));
+        if (searchSavedQueryMaterializer.isStale(results)) {
+            response.header(HttpHeaders.WARNING, WARNING_STALE);
+        }
+        if (results.isTruncated()) {
+            response.header(HttpHeaders.WARNING, WARNING_TRUNCATED);
+        }
+        return response.body(results.getResults());
     }
 
     @PreAuthorize("isAuthenticated()")
@@ -38,6 +38,9 @@ import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 public class ErrorConverter extends AbstractHttpMessageConverter<ErrorDTO> {
 
@@ -64,7 +67,9 @@ public class ErrorConverter extends AbstractHttpMessageConverter<ErrorDTO> {
     protected void writeInternal(
             ErrorDTO errorDTO, HttpOutputMessage outputMessage
     ) throws IOException, HttpMessageNotWritableException {
-        outputMessage.getBody().write(errorDTO.getMessage().getBytes());
+        final Writer writer = new OutputStreamWriter(outputMessage.getBody(), StandardCharsets.UTF_8);
+        writer.write(errorDTO.getMessage());
+        writer.flush();
     }
 
     private static MediaType[] getMediaTypes(RDFFormat format) {
@@ -27,10 +27,12 @@
  */
 package nl.dtls.fairdatapoint.api.converter;
 
+import nl.dtls.fairdatapoint.entity.metadata.RenderedMetadata;
 import nl.dtls.fairdatapoint.util.RdfIOUtil;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
@@ -39,10 +41,19 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 public class RdfConverter extends AbstractHttpMessageConverter<Model> {
 
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int ESTIMATED_STATEMENT_SIZE = 128;
+
+    private static final String MSG_EXC_WRITE = "Unable to write RDF";
+
     private final RDFFormat format;
 
     public RdfConverter(RDFFormat format) {
@@ -64,8 +75,27 @@ public class RdfConverter extends AbstractHttpMessageConverter<Model> {
     @Override
     protected void writeInternal(Model model, HttpOutputMessage outputMessage)
             throws IOException, HttpMessageNotWritableException {
-        final String rdf = RdfIOUtil.write(model, format);
-        outputMessage.getBody().write(rdf.getBytes());
+        try {
+            if (model instanceof RenderedMetadata renderedMetadata) {
+                outputMessage.getBody().write(renderedMetadata.getRendering(format, this::render));
+            }
+            else {
+                // Stream directly to the response (chunked, no Content-Length)
+                final OutputStream out = new BufferedOutputStream(outputMessage.getBody(), BUFFER_SIZE);
+                RdfIOUtil.write(model, format, out);
+                out.flush();
+            }
+        }
+        catch (RDFHandlerException exception) {
+            throw new HttpMessageNotWritableException(MSG_EXC_WRITE, exception);
+        }
+    }
+
+    private byte[] render(Model model) {
+        final ByteArrayOutputStream out =
+                new ByteArrayOutputStream(Math.max(BUFFER_SIZE, model.size() * ESTIMATED_STATEMENT_SIZE));
+        RdfIOUtil.write(model, format, out);
+        return out.toByteArray();
     }
 
     private static MediaType[] getMediaTypes(RDFFormat format) {
@@ -39,4 +39,6 @@ public class SearchFilterItemDTO {
 
     private boolean preset = true;
 
+    private Long count;
+
 }
@@ -45,6 +45,8 @@ public class SearchSavedQueryChangeDTO {
     @NotNull
     private SearchSavedQueryType type;
 
+    private boolean materialized;
+
     @Valid
     @NotNull
     private SearchQueryVariablesDTO variables;
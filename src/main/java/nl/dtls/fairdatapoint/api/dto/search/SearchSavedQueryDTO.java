@@ -51,6 +51,8 @@ public class SearchSavedQueryDTO {
     @NotNull
     private SearchSavedQueryType type;
 
+    private boolean materialized;
+
     @Valid
     @JsonInclude
     private UserDTO user;
@@ -2,6 +2,7 @@ package nl.dtls.fairdatapoint.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 
 import nl.dtls.fairdatapoint.config.properties.OntologySearchProperties;
 import nl.dtls.fairdatapoint.database.ontology.OntologySearcher;
@@ -9,7 +10,9 @@ import nl.dtls.fairdatapoint.database.ontology.OntologySearcher;
 @Configuration
 public class OntologySearcherConfig {
 
+    // Migrations may clear the stored associations, which must happen before the indexing starts
     @Bean("ontologySearcher")
+    @DependsOn("mongockRunner")
     public OntologySearcher customOntologySearcher(OntologySearchProperties properties) {
     	
     	final OntologySearcher searcher = new OntologySearcher();
@@ -18,6 +21,9 @@ public class OntologySearcherConfig {
     	searcher.setRelevanceThreshold(properties.getAssociationRelevanceThreshold());
 
     	searcher.setCachePath(properties.getCachePath());
+    	searcher.setIndexThreads(properties.getIndexThreads());
+    	searcher.setIndexMinRelevance(properties.getIndexMinRelevance());
+    	searcher.setIndexTopAssociations(properties.getIndexTopAssociations());
 
 		return searcher;
     }
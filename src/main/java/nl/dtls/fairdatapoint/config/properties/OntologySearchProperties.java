@@ -23,4 +23,12 @@ public class OntologySearchProperties {
 	private double associationRelevanceThreshold;
 
 	private String cachePath;
+
+	private String indexPath;
+
+	private int indexThreads = 2;
+
+	private double indexMinRelevance;
+
+	private int indexTopAssociations;
 }
@@ -33,9 +33,9 @@ import nl.dtls.fairdatapoint.database.mongo.migration.development.resource.Resou
 import nl.dtls.fairdatapoint.database.mongo.migration.development.schema.MetadataSchemaMigration;
 import nl.dtls.fairdatapoint.database.mongo.migration.development.settings.SettingsMigration;
 import nl.dtls.fairdatapoint.database.mongo.migration.development.user.UserMigration;
+import nl.dtls.fairdatapoint.service.metadata.common.MetadataCaches;
 import nl.dtls.fairdatapoint.service.resource.ResourceDefinitionCache;
 import nl.dtls.fairdatapoint.service.resource.ResourceDefinitionTargetClassesCache;
-import nl.dtls.fairdatapoint.service.search.SearchFilterCache;
 import nl.dtls.fairdatapoint.service.settings.SettingsCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
@@ -87,7 +87,7 @@ public class MigrationRunner {
     private ResourceDefinitionCache resourceDefinitionCache;
 
     @Autowired
-    private SearchFilterCache searchFilterCache;
+    private MetadataCaches metadataCaches;
 
     @PostConstruct
     public void run() {
@@ -104,7 +104,7 @@ public class MigrationRunner {
         eventMigration.runMigration();
         resourceDefinitionTargetClassesCache.computeCache();
         resourceDefinitionCache.computeCache();
-        searchFilterCache.clearCache();
+        metadataCaches.invalidateAll();
     }
 
 }
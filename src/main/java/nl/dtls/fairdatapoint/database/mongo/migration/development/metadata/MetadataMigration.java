@@ -24,6 +24,7 @@ package nl.dtls.fairdatapoint.database.mongo.migration.development.metadata;
 
 import nl.dtls.fairdatapoint.database.common.migration.Migration;
 import nl.dtls.fairdatapoint.database.mongo.repository.MetadataRepository;
+import nl.dtls.fairdatapoint.service.metadata.common.MetadataCaches;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -33,8 +34,12 @@ public class MetadataMigration implements Migration {
     @Autowired
     private MetadataRepository metadataRepository;
 
+    @Autowired
+    private MetadataCaches metadataCaches;
+
     public void runMigration() {
         metadataRepository.deleteAll();
+        metadataCaches.invalidateAll();
     }
 
 }
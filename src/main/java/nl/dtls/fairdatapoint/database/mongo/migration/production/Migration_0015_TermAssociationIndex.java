@@ -0,0 +1,91 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.mongo.migration.production;
+
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import lombok.extern.slf4j.Slf4j;
+import nl.dtls.fairdatapoint.Profiles;
+import nl.dtls.fairdatapoint.config.properties.OntologySearchProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Slf4j
+@ChangeUnit(
+        id = "Migration_0015_TermAssociationIndex",
+        order = "0015",
+        author = "migrationBot"
+)
+@Profile(Profiles.PRODUCTION)
+public class Migration_0015_TermAssociationIndex {
+
+    private static final String COL_TERM_ASSOCIATIONS = "termAssociations";
+    private static final String COL_INDEXED_ONTOLOGIES = "indexedOntologies";
+    private static final String FIELD_URL = "url";
+    private static final String INDEX_URL = "url";
+    private static final String SNAPSHOT_FILENAME = "term-associations.bin";
+
+    private final MongoTemplate database;
+
+    public Migration_0015_TermAssociationIndex(MongoTemplate template) {
+        this.database = template;
+    }
+
+    @Execution
+    public void run(OntologySearchProperties searchProperties) {
+        // Stored associations are not pruned, so all ontologies are indexed again
+        database.dropCollection(COL_INDEXED_ONTOLOGIES);
+        database.dropCollection(COL_TERM_ASSOCIATIONS);
+        deleteSnapshot(searchProperties.getCachePath());
+
+        // Loading the associations and removing them select by url
+        database.createCollection(COL_TERM_ASSOCIATIONS).createIndex(
+                Indexes.ascending(FIELD_URL),
+                new IndexOptions().name(INDEX_URL)
+        );
+    }
+
+    @RollbackExecution
+    public void rollback() {
+        database.getCollection(COL_TERM_ASSOCIATIONS).dropIndex(INDEX_URL);
+    }
+
+    private void deleteSnapshot(String cachePath) {
+        if (cachePath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Path.of(cachePath, SNAPSHOT_FILENAME));
+        }
+        catch (IOException exception) {
+            log.warn("Failed to delete term association snapshot: {}", exception.getMessage());
+        }
+    }
+}
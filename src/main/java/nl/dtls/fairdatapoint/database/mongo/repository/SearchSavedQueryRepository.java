@@ -25,10 +25,13 @@ package nl.dtls.fairdatapoint.database.mongo.repository;
 import nl.dtls.fairdatapoint.entity.search.SearchSavedQuery;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface SearchSavedQueryRepository extends MongoRepository<SearchSavedQuery, String> {
 
     Optional<SearchSavedQuery> findByUuid(String uuid);
 
+    List<SearchSavedQuery> findByMaterializedTrue();
+
 }
@@ -27,7 +27,6 @@ import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 
 import nl.dtls.fairdatapoint.entity.ontology.TermAssociation;
 
@@ -35,6 +34,5 @@ public interface TermAssociationRepository extends MongoRepository<TermAssociati
 	
 	List<TermAssociation> findByUrl(URL url);
 	
-	@Query(value="{'key' : {'$in' : ?0 }, 'url' : {'$in' : ?1 } }")
-	List<TermAssociation> findByKeysAndUrls(List<String> keys, List<URL> urls);
+	void deleteByUrl(URL url);
 }
@@ -29,19 +29,30 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.zip.ZipInputStream;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
@@ -56,11 +67,18 @@ import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.search.EntitySearcher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Service;
 
+import nl.dtls.fairdatapoint.database.mongo.repository.IndexedOntologyRepository;
 import nl.dtls.fairdatapoint.database.mongo.repository.TermAssociationRepository;
+import nl.dtls.fairdatapoint.entity.ontology.IndexedOntology;
+import nl.dtls.fairdatapoint.entity.ontology.OntologyIndexState;
+import nl.dtls.fairdatapoint.entity.ontology.OntologyIndexStatus;
 import nl.dtls.fairdatapoint.entity.ontology.TermAssociation;
 
 
@@ -97,22 +115,76 @@ public class OntologySearcher {
 	private double relevanceThreshold;
 	
 	/**
-	 * ontology manager, needed to index owl files.
+	 * The number of ontologies that are indexed in parallel in the background.
 	 */
-	static private OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+	private int indexThreads = 1;
+	
+	/**
+	 * The minimum relevance of an association to be stored by the indexing.
+	 */
+	private double indexMinRelevance = 0.0;
+	
+	/**
+	 * The maximum number of associations stored per term, the most relevant ones. Zero or less means no limit.
+	 */
+	private int indexTopAssociations = 0;
+	
+	/**
+	 * The indexing status per ontology url.
+	 */
+	private final Map<String, OntologyIndexStatus> indexStatus = new ConcurrentHashMap<String, OntologyIndexStatus>();
+	
+	/**
+	 * Executor of the background indexing, only exists while ontologies are being indexed.
+	 */
+	private ExecutorService indexExecutor;
+	
+	/**
+	 * The associations of all indexed ontologies, replaced as a whole after (re-)indexing.
+	 */
+	private volatile TermAssociationGraph associationGraph = TermAssociationGraph.empty();
 
 	/**
 	 * ontology data factory, needed to index owl files.
 	 */
 	static private OWLDataFactory dataFactory = OWLManager.getOWLDataFactory();
 
+	/**
+	 * The number of associations that are written to the database in one bulk insert.
+	 */
+	static final int INDEX_BATCH_SIZE = 10000;
+	
+	/**
+	 * The number of key terms after which the indexing progress is logged.
+	 */
+	static final int INDEX_PROGRESS_INTERVAL = 10000;
+	
+	/**
+	 * The file name of the association snapshot, in the cache directory.
+	 */
+	static final String SNAPSHOT_FILENAME = "term-associations.bin";
+
 	@Autowired
 	TermAssociationRepository associationRepository;
 	
+	@Autowired
+	IndexedOntologyRepository indexedOntologyRepository;
+	
+	@Autowired
+	MongoTemplate mongoTemplate;
+	
 	@PostConstruct
 	private void init() {
 		
-		indexAllOntologies();
+		openAssociationSnapshot();
+		indexAllOntologiesInBackground();
+	}
+	
+	@PreDestroy
+	private void destroy() {
+		
+		if (indexExecutor != null)
+			indexExecutor.shutdownNow();
 	}
 
 	/**
@@ -123,15 +195,74 @@ public class OntologySearcher {
 		this.relevanceThreshold = value;
 	}
 	
+	/**
+	 * Setter for the number of ontologies that are indexed in parallel.
+	 * @param threads the new number of indexing threads.
+	 */
+	public void setIndexThreads(int threads) {
+		this.indexThreads = Math.max(threads, 1);
+	}
+	
+	/**
+	 * Setter for the minimum relevance of stored associations.
+	 * @param value the new minimum relevance.
+	 */
+	public void setIndexMinRelevance(double value) {
+		this.indexMinRelevance = value;
+	}
+	
+	/**
+	 * Setter for the maximum number of stored associations per term.
+	 * @param value the new maximum, zero or less for no limit.
+	 */
+	public void setIndexTopAssociations(int value) {
+		this.indexTopAssociations = value;
+	}
+	
 	/**
 	 * Tells whether a given ontology web language (OWL) file URL was already indexed by this class.
+	 * Only a completed indexing counts: the marker is stored after the last association,
+	 * so the associations of an interrupted or failed run don't make an ontology look indexed.
+	 * An ontology that was indexed with other pruning settings gets indexed again.
 	 * 
 	 * @param url, the url to the OWL file
 	 * @return the answer it was already indexed or not
 	 */
 	private boolean alreadyIndexed(URL url) {
 		
-		return (associationRepository.findByUrl(url).size() > 0);
+		Optional<IndexedOntology> indexedOntology = indexedOntologyRepository.findByUrl(url);
+		
+		return indexedOntology.isPresent() && isCurrent(indexedOntology.get());
+	}
+	
+	/**
+	 * Tells whether an ontology was indexed with the current pruning settings.
+	 * 
+	 * @param indexedOntology the completion marker of the ontology
+	 * @return whether the stored associations are pruned like a new indexing would
+	 */
+	private boolean isCurrent(IndexedOntology indexedOntology) {
+		
+		return indexedOntology.getMinRelevance() == indexMinRelevance
+			&& indexedOntology.getTopAssociations() == indexTopAssociations;
+	}
+	
+	/**
+	 * Removes the completion marker and all stored associations of one ontology.
+	 * Failures are only logged, the next indexing of the ontology removes them again.
+	 * 
+	 * @param url the url of the ontology
+	 */
+	private void discardIndex(URL url) {
+		
+		try {
+			// The marker goes first, so the associations are never complete without it.
+			indexedOntologyRepository.deleteByUrl(url);
+			associationRepository.deleteByUrl(url);
+			
+		} catch (RuntimeException e) {
+			log.warn("failed to remove the associations of {}: {}", url, e.getMessage());
+		}
 	}
 
 	/**
@@ -199,7 +330,8 @@ public class OntologySearcher {
 	 **/
 	private static OWLOntology parseOwl(File file) throws OWLOntologyCreationException, IOException {
 
-		
+		// Managers aren't thread safe, each parse gets its own (which also releases the ontology afterwards).
+		OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
 		OWLOntology ontology;
 		InputStream input = new FileInputStream(file.toString());
 		
@@ -230,7 +362,19 @@ public class OntologySearcher {
 		
 		log.info("clearing all associations from repository");
 		
+		indexedOntologyRepository.deleteAll();
 		associationRepository.deleteAll();
+		indexStatus.clear();
+		associationGraph = TermAssociationGraph.empty();
+		
+		if (cachePath == null)
+			return;
+		
+		try {
+			Files.deleteIfExists(getSnapshotPath());
+		} catch (IOException e) {
+			log.warn("failed to delete association snapshot: {}", e.getMessage());
+		}
 	}
 
 	/**
@@ -239,27 +383,282 @@ public class OntologySearcher {
 	public void indexAllOntologies() {
 		
 		for (URL url : this.ontologyURLs) {
-
-			// Don't index the same ontology at every reboot.
-			if (alreadyIndexed(url))
-				continue;
 			
-			try {
-				File owlFile = fetchOwl(url);
-				
-				log.info("parsing {}", owlFile.getName());
-				OWLOntology ontology = parseOwl(owlFile);
-				
-				log.info("beginning to index {}", url);
-				indexOntology(ontology, url);
-				
-			} catch (IOException e) {
-				log.error("I/O exception on indexing {}: {}", url, e);
-				
-			} catch (OWLOntologyCreationException e) {
-				log.error("ontology exception on indexing {}: {}", url, e);
+			indexOntologyUrl(url);
+		}
+	}
+	
+	/**
+	 * Does the same as indexAllOntologies, but on a dedicated executor, indexing multiple ontologies in parallel.
+	 * Until an ontology is indexed, its associations are not used by 'getAssociations'.
+	 * This happens once, on startup.
+	 */
+	private synchronized void indexAllOntologiesInBackground() {
+		
+		if (this.ontologyURLs.isEmpty())
+			return;
+		
+		if (indexExecutor != null)
+			throw new IllegalStateException("ontologies are already being indexed in the background");
+		
+		AtomicInteger threadCount = new AtomicInteger();
+		indexExecutor = Executors.newFixedThreadPool(Math.min(indexThreads, this.ontologyURLs.size()), runnable -> {
+			Thread thread = new Thread(runnable, "ontology-index-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		for (URL url : this.ontologyURLs) {
+			
+			setIndexState(url, OntologyIndexState.PENDING, null);
+			indexExecutor.submit(() -> indexOntologyUrl(url));
+		}
+		
+		// The threads end once all ontologies are processed.
+		indexExecutor.shutdown();
+	}
+	
+	/**
+	 * Downloads, parses and indexes one ontology, keeping track of its status.
+	 * 
+	 * @param url the url of the ontology to index
+	 */
+	private void indexOntologyUrl(URL url) {
+		
+		// Don't index the same ontology at every reboot.
+		if (alreadyIndexed(url)) {
+			setIndexState(url, OntologyIndexState.DONE, null);
+			loadAssociationGraph(false);
+			return;
+		}
+		
+		try {
+			setIndexState(url, OntologyIndexState.DOWNLOADING, null);
+			File owlFile = fetchOwl(url);
+			
+			log.info("parsing {}", owlFile.getName());
+			setIndexState(url, OntologyIndexState.PARSING, null);
+			OWLOntology ontology = parseOwl(owlFile);
+			
+			log.info("beginning to index {}", url);
+			setIndexState(url, OntologyIndexState.INDEXING, null);
+			
+			// Associations left by an interrupted earlier run must not be mixed with the new ones.
+			discardIndex(url);
+			long associationCount = indexOntology(ontology, url);
+			indexedOntologyRepository.save(new IndexedOntology(null, url, associationCount,
+															   indexMinRelevance, indexTopAssociations, Instant.now()));
+			
+			setIndexState(url, OntologyIndexState.DONE, null);
+			loadAssociationGraph(true);
+			
+		} catch (IOException e) {
+			log.error("I/O exception on indexing {}: {}", url, e);
+			setIndexState(url, OntologyIndexState.FAILED, e.getMessage());
+			discardIndex(url);
+			
+		} catch (OWLOntologyCreationException e) {
+			log.error("ontology exception on indexing {}: {}", url, e);
+			setIndexState(url, OntologyIndexState.FAILED, e.getMessage());
+			discardIndex(url);
+			
+		} catch (Throwable e) {
+			// Also errors, like running out of memory on a large ontology: nobody waits for the task,
+			// so it would otherwise end unnoticed and leave the ontology in its last state forever.
+			log.error("failed to index {}: {}", url, e);
+			setIndexState(url, OntologyIndexState.FAILED, e.toString());
+			discardIndex(url);
+		}
+	}
+	
+	private void setIndexState(URL url, OntologyIndexState state, String error) {
+		
+		indexStatus.put(url.toString(), new OntologyIndexStatus(url.toString(), state, error, Instant.now()));
+	}
+	
+	/**
+	 * Get the indexing status of every configured ontology.
+	 * 
+	 * @return the status per ontology url, in the configured order
+	 */
+	public List<OntologyIndexStatus> getIndexStatus() {
+		
+		List<OntologyIndexStatus> result = new ArrayList<OntologyIndexStatus>();
+		for (URL url : this.ontologyURLs) {
+			
+			OntologyIndexStatus status = indexStatus.get(url.toString());
+			if (status == null)
+				status = new OntologyIndexStatus(url.toString(), OntologyIndexState.PENDING, null, null);
+			result.add(status);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Loads the associations of all fully indexed ontologies from mongo into a new graph,
+	 * stores it as snapshot and replaces the current one with it.
+	 * 
+	 * @param force whether to load even if the current graph already holds the latest indexing of every indexed ontology
+	 */
+	private synchronized void loadAssociationGraph(boolean force) {
+		
+		List<IndexedOntology> indexedOntologies = getIndexedOntologies(getIndexedUrls());
+		if (!force && holdsIndexings(associationGraph, indexedOntologies))
+			return;
+		
+		List<URL> indexedUrls = new ArrayList<URL>();
+		for (IndexedOntology indexedOntology : indexedOntologies)
+			indexedUrls.add(indexedOntology.getUrl());
+		
+		Query query = new Query(Criteria.where("url").in(indexedUrls));
+		
+		TermAssociationGraph graph;
+		try (CloseableIterator<TermAssociation> associations = mongoTemplate.stream(query, TermAssociation.class)) {
+			graph = TermAssociationGraph.build(indexedOntologies, associations);
+		}
+		
+		log.info("loaded {} associations between {} terms of {} ontologies",
+				 graph.getAssociationCount(), graph.getTermCount(), indexedUrls.size());
+		
+		associationGraph = cachePath == null ? graph : storeAssociationSnapshot(graph);
+	}
+	
+	/**
+	 * Writes a graph as association snapshot and opens the written file, so that the associations
+	 * are served from the mapped file instead of the heap.
+	 * 
+	 * @param graph the association graph loaded from mongo
+	 * @return the mapped snapshot, or the given graph if it could not be written or opened
+	 */
+	private TermAssociationGraph storeAssociationSnapshot(TermAssociationGraph graph) {
+		
+		try {
+			graph.writeTo(getSnapshotPath());
+			Optional<TermAssociationGraph> snapshot = TermAssociationGraph.open(getSnapshotPath());
+			if (snapshot.isPresent())
+				return snapshot.get();
+			
+			log.warn("written association snapshot is not valid, serving associations from the heap");
+		} catch (IOException e) {
+			log.warn("failed to store association snapshot: {}", e.getMessage());
+		}
+		
+		return graph;
+	}
+	
+	/**
+	 * Opens the association snapshot in the cache directory, if it is valid and holds exactly
+	 * the configured ontologies, each from its last completed indexing in mongo.
+	 * Associations can then be served right away, without loading them from mongo.
+	 */
+	private void openAssociationSnapshot() {
+		
+		if (cachePath == null || !Files.isRegularFile(getSnapshotPath()))
+			return;
+		
+		try {
+			Optional<TermAssociationGraph> snapshot = TermAssociationGraph.open(getSnapshotPath());
+			if (snapshot.isEmpty()) {
+				log.info("association snapshot has an old version or a wrong checksum, it will be rebuilt");
+				return;
+			}
+			if (!toStrings(snapshot.get().getUrls()).equals(toStrings(this.ontologyURLs))) {
+				log.info("association snapshot holds other ontologies, it will be rebuilt");
+				return;
 			}
+			// After a database reset or a re-indexing, the snapshot holds associations that are no longer stored.
+			List<IndexedOntology> indexedOntologies = getIndexedOntologies(this.ontologyURLs);
+			if (indexedOntologies.size() != this.ontologyURLs.size()
+					|| !holdsIndexings(snapshot.get(), indexedOntologies)) {
+				log.info("association snapshot doesn't match the indexed ontologies, it will be rebuilt");
+				return;
+			}
+			associationGraph = snapshot.get();
+			
+			log.info("opened association snapshot with {} associations between {} terms",
+					 associationGraph.getAssociationCount(), associationGraph.getTermCount());
+			
+		} catch (IOException e) {
+			log.warn("failed to open association snapshot: {}", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Get the completion markers of those of the given ontologies that are completely indexed,
+	 * with the current pruning settings.
+	 * 
+	 * @param urls the urls of the ontologies
+	 * @return the markers, in the order of the urls
+	 */
+	private List<IndexedOntology> getIndexedOntologies(List<URL> urls) {
+		
+		List<IndexedOntology> result = new ArrayList<IndexedOntology>();
+		for (URL url : urls) {
+			
+			Optional<IndexedOntology> indexedOntology = indexedOntologyRepository.findByUrl(url);
+			if (indexedOntology.isPresent() && isCurrent(indexedOntology.get()))
+				result.add(indexedOntology.get());
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Tells whether a graph holds the associations of the given completed indexings.
+	 * 
+	 * @param graph the association graph to check
+	 * @param indexedOntologies the completion markers of the indexed ontologies
+	 * @return whether the graph has every one of the ontologies, from the same indexing
+	 */
+	private static boolean holdsIndexings(TermAssociationGraph graph, List<IndexedOntology> indexedOntologies) {
+		
+		Map<String, Instant> indexedAt = graph.getIndexedAt();
+		for (IndexedOntology indexedOntology : indexedOntologies) {
+			
+			Instant graphIndexedAt = indexedAt.get(indexedOntology.getUrl().toString());
+			if (graphIndexedAt == null
+					|| graphIndexedAt.toEpochMilli() != indexedOntology.getIndexedAt().toEpochMilli())
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Get the path of the association snapshot, next to the cached owl files.
+	 * 
+	 * @return the snapshot file path
+	 */
+	private Path getSnapshotPath() {
+		
+		return Path.of(cachePath, SNAPSHOT_FILENAME);
+	}
+	
+	/**
+	 * Converts urls to strings, to compare them without resolving host names.
+	 */
+	private static Set<String> toStrings(List<URL> urls) {
+		
+		return urls.stream().map(URL::toString).collect(Collectors.toSet());
+	}
+	
+	/**
+	 * Get the urls of the ontologies that are fully indexed.
+	 * 
+	 * @return the list of indexed urls
+	 */
+	private List<URL> getIndexedUrls() {
+		
+		List<URL> result = new ArrayList<URL>();
+		for (URL url : this.ontologyURLs) {
+			
+			OntologyIndexStatus status = indexStatus.get(url.toString());
+			if (status != null && status.getState() == OntologyIndexState.DONE)
+				result.add(url);
 		}
+		
+		return result;
 	}
 
 	/**
@@ -282,65 +681,245 @@ public class OntologySearcher {
 		return termCount;
 	}
 	
+	/**
+	 * The terms of one class, encoded as term ids with their number of occurrences in the class.
+	 */
+	private static class ClassTerms {
+
+		private final int[] termIds;
+
+		private final int[] counts;
+
+		private final int total;
+
+		ClassTerms(int[] termIds, int[] counts, int total) {
+			this.termIds = termIds;
+			this.counts = counts;
+			this.total = total;
+		}
+	}
+
 	/**
 	 * Indexes all the classes in one ontology's signature.
 	 * For every class, get the terms in the description, count the occurrences,
 	 * associate terms that occur together in one class and store in the database.
 	 * 
+	 * The terms of every class are extracted only once and kept as term ids.
+	 * Associations are streamed to the database in unordered bulk inserts of a fixed size,
+	 * so the memory use does not depend on the number of associations in the ontology.
+	 * 
+	 * Associations are pruned before they are stored: a term is not associated with itself,
+	 * the relevance of a pair is accumulated over all classes it occurs in (so every pair is stored once),
+	 * pairs below the minimum relevance are skipped and only the most relevant associations per term are kept.
+	 * 
 	 * @param ontology the ontology to index
 	 * @param url that the ontology came from, this will be stored with all associated data
+	 * @return the number of stored associations
 	 */
-	private void indexOntology(OWLOntology ontology, URL url) {
+	private long indexOntology(OWLOntology ontology, URL url) {
 		
-		// Count the frequency of the terms everywhere.
-		List<String> allTerms = new ArrayList<String>();
-		int classCount = 0;
-		for (OWLClass cls : ontology.getClassesInSignature()) {
-			allTerms.addAll(getTermsInClass(ontology, cls));
-			classCount ++;
-		}
+		List<TermAssociation> batch = new ArrayList<TermAssociation>(INDEX_BATCH_SIZE);
+		long associationCount = findAssociations(ontology, url, association -> {
+			
+			batch.add(association);
+			
+			// Write a full batch and start over.
+			if (batch.size() >= INDEX_BATCH_SIZE) {
+				storeAssociations(batch);
+				batch.clear();
+			}
+		});
 		
-		// Count for every term how often it occurs overall.
-		Map<String, Integer> termCount = countTerms(allTerms);
-
-		log.debug("finding associations from terms in classes");
-		List<TermAssociation> associations = new ArrayList<TermAssociation>();
+		storeAssociations(batch);
+		
+		return associationCount;
+	}
+	
+	/**
+	 * Finds the pruned associations between the terms of all classes in one ontology, see 'indexOntology'.
+	 * 
+	 * @param ontology the ontology to find associations in
+	 * @param url that the ontology came from
+	 * @param associations receives every association to store, one by one
+	 * @return the number of associations found
+	 */
+	long findAssociations(OWLOntology ontology, URL url, Consumer<TermAssociation> associations) {
+		
+		long startTime = System.currentTimeMillis();
+		
+		// Extract the terms of every class once and count how often every term occurs overall.
+		Map<String, Integer> termIds = new HashMap<String, Integer>();
+		List<String> terms = new ArrayList<String>();
+		List<Integer> termCount = new ArrayList<Integer>();
+		List<ClassTerms> classes = new ArrayList<ClassTerms>();
 		for (OWLClass cls : ontology.getClassesInSignature()) {
 			
-			// get terms in class
 			List<String> termsInClass = getTermsInClass(ontology, cls);
-			int totalClassTermCount = termsInClass.size();
-			
-			// count the term frequency within the class
 			Map<String, Integer> termCountInClass = countTerms(termsInClass);
 			
-			// See which words are together in this class.
-			for (String term1 : termCountInClass.keySet()) {
-				for (String term2 : termCountInClass.keySet()) {
+			int[] ids = new int[termCountInClass.size()],
+				  counts = new int[termCountInClass.size()];
+			int index = 0;
+			for (Map.Entry<String, Integer> entry : termCountInClass.entrySet()) {
+				
+				Integer id = termIds.get(entry.getKey());
+				if (id == null) {
+					id = terms.size();
+					termIds.put(entry.getKey(), id);
+					terms.add(entry.getKey());
+					termCount.add(0);
+				}
+				termCount.set(id, termCount.get(id) + entry.getValue());
+				
+				ids[index] = id;
+				counts[index] = entry.getValue();
+				index ++;
+			}
+			classes.add(new ClassTerms(ids, counts, termsInClass.size()));
+		}
+		int classCount = classes.size();
+		
+		int termTotal = terms.size();
+		
+		log.info("finding associations between {} terms in {} classes of {}", termTotal, classCount, url);
+		
+		// Index in which classes every term occurs (class index and position of the term within the class).
+		int[] postingOffsets = new int[termTotal + 1];
+		for (ClassTerms classTerms : classes) {
+			for (int id : classTerms.termIds)
+				postingOffsets[id + 1] ++;
+		}
+		for (int id = 0; id < termTotal; id++)
+			postingOffsets[id + 1] += postingOffsets[id];
+		
+		int[] postingClasses = new int[postingOffsets[termTotal]],
+			  postingPositions = new int[postingOffsets[termTotal]],
+			  nextPosting = Arrays.copyOf(postingOffsets, termTotal);
+		for (int c = 0; c < classCount; c++) {
+			ClassTerms classTerms = classes.get(c);
+			for (int i = 0; i < classTerms.termIds.length; i++) {
+				int posting = nextPosting[classTerms.termIds[i]] ++;
+				postingClasses[posting] = c;
+				postingPositions[posting] = i;
+			}
+		}
+		
+		double[] idf = new double[termTotal];
+		for (int id = 0; id < termTotal; id++)
+			idf[id] = Math.log((double)classCount / termCount.get(id));
+		
+		// Per key term: the accumulated relevance of every associated term, which terms these are,
+		// and a marker telling whether a term was already associated with the current key term.
+		double[] relevances = new double[termTotal];
+		int[] associated = new int[termTotal],
+			  selected = new int[termTotal],
+			  associatedWith = new int[termTotal];
+		Arrays.fill(associatedWith, -1);
+		
+		long associationCount = 0;
+		for (int term1 = 0; term1 < termTotal; term1++) {
+			
+			// See which words are together with this one in any class, merging the relevance over the classes.
+			int associatedCount = 0;
+			for (int posting = postingOffsets[term1]; posting < postingOffsets[term1 + 1]; posting++) {
+				
+				ClassTerms classTerms = classes.get(postingClasses[posting]);
+				double tf1 = (double)classTerms.counts[postingPositions[posting]] / classTerms.total;
+				
+				for (int j = 0; j < classTerms.termIds.length; j++) {
 					
-					// Calculate the relevance for the association.
-					double idf1 = Math.log((double)classCount / termCount.get(term1)),
-						   idf2 = Math.log((double)classCount / termCount.get(term2)),
-						   tf1 = (double)termCountInClass.get(term1) / totalClassTermCount,
-						   tf2 = (double)termCountInClass.get(term2) / totalClassTermCount,
-						   
-						   relevance = tf1 * idf1 * tf2 * idf2;
+					// A term associated with itself doesn't add any words to a search.
+					int term2 = classTerms.termIds[j];
+					if (term2 == term1)
+						continue;
 					
-					// store in object
-					TermAssociation association = new TermAssociation();
-					association.setKey(term1);
-					association.setValue(term2);
-					association.setRelevance(relevance);
-					association.setUrl(url);
+					if (associatedWith[term2] != term1) {
+						associatedWith[term2] = term1;
+						relevances[term2] = 0.0;
+						associated[associatedCount ++] = term2;
+					}
 					
-					associations.add(association);
+					// Calculate the relevance for the association.
+					double tf2 = (double)classTerms.counts[j] / classTerms.total;
+					relevances[term2] += tf1 * idf[term1] * tf2 * idf[term2];
 				}
 			}
+			
+			int selectedCount = selectAssociations(associated, associatedCount, relevances, selected);
+			for (int k = 0; k < selectedCount; k++) {
+				
+				int term2 = selected[k];
+				associations.accept(new TermAssociation(null, terms.get(term1), terms.get(term2), relevances[term2], url));
+			}
+			associationCount += selectedCount;
+			
+			if ((term1 + 1) % INDEX_PROGRESS_INTERVAL == 0) {
+				logIndexProgress(url, term1 + 1, termTotal, associationCount, startTime);
+			}
 		}
 		
-		log.debug("storing {} associations", associations.size());
+		logIndexProgress(url, termTotal, termTotal, associationCount, startTime);
 		
-		associationRepository.insert(associations);
+		return associationCount;
+	}
+	
+	/**
+	 * Prunes the associations of one key term: only those with the minimum relevance are kept,
+	 * and of those only the most relevant ones, if a maximum number of associations per term is set.
+	 * 
+	 * @param associated the associated terms
+	 * @param count the number of associated terms
+	 * @param relevances the relevance per associated term
+	 * @param selected receives the terms to store
+	 * @return the number of terms to store
+	 */
+	private int selectAssociations(int[] associated, int count, double[] relevances, int[] selected) {
+		
+		int selectedCount = 0;
+		for (int k = 0; k < count; k++) {
+			if (relevances[associated[k]] >= indexMinRelevance)
+				selected[selectedCount ++] = associated[k];
+		}
+		
+		if (indexTopAssociations <= 0 || selectedCount <= indexTopAssociations)
+			return selectedCount;
+		
+		Integer[] order = new Integer[selectedCount];
+		for (int k = 0; k < selectedCount; k++)
+			order[k] = selected[k];
+		Arrays.sort(order, (left, right) -> Double.compare(relevances[right], relevances[left]));
+		for (int k = 0; k < indexTopAssociations; k++)
+			selected[k] = order[k];
+		
+		return indexTopAssociations;
+	}
+	
+	/**
+	 * Stores a batch of associations with one unordered bulk insert.
+	 * 
+	 * @param associations the batch of associations to store
+	 */
+	private void storeAssociations(List<TermAssociation> associations) {
+		
+		if (associations.isEmpty())
+			return;
+		
+		mongoTemplate
+			.bulkOps(BulkOperations.BulkMode.UNORDERED, TermAssociation.class)
+			.insert(associations)
+			.execute();
+	}
+	
+	/**
+	 * Logs how far the indexing of an ontology got and at which rate associations are found.
+	 */
+	private static void logIndexProgress(URL url, int termIndex, int termTotal,
+										 long associationCount, long startTime) {
+		
+		double seconds = Math.max(System.currentTimeMillis() - startTime, 1) / 1000.0;
+		
+		log.info("indexed {}/{} terms of {}: {} associations ({} associations/s)",
+				 termIndex, termTotal, url, associationCount, Math.round(associationCount / seconds));
 	}
 	
 	/**
@@ -485,21 +1064,17 @@ public class OntologySearcher {
 	 */
 	public List<TermAssociation> getAssociations(String input) {
 
-        log.info("getting associations for '{}'", input);
-		
-		// Get associations from mongo, that have words from 'input' as key.
+		// Get associations from the in-memory graph, that have words from 'input' as key.
+		// It only holds ontologies that are fully indexed, without any the search is keyword-only.
+		TermAssociationGraph graph = this.associationGraph;
 		List<TermAssociation> associations = new ArrayList<TermAssociation>();
 		
-		for (TermAssociation a : associationRepository.findByKeysAndUrls(getKeywordsFromString(input), this.ontologyURLs)) {
+		for (String keyword : getKeywordsFromString(input)) {
 			
-            log.info("comparing '{}' association '{}' with relevance {} to {}",
-                     a.getKey(), a.getValue(), a.getRelevance(), this.relevanceThreshold);
-
-			if (a.getRelevance() > this.relevanceThreshold)
-				associations.add(a);
+			associations.addAll(graph.getAssociations(keyword, this.relevanceThreshold));
 		}
 		
-		log.info("found {} associations for \"{}\"", associations.size(), input);
+		log.debug("found {} associations for \"{}\"", associations.size(), input);
 		
 		return associations;
 	}
@@ -0,0 +1,462 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.ontology;
+
+import nl.dtls.fairdatapoint.entity.ontology.IndexedOntology;
+import nl.dtls.fairdatapoint.entity.ontology.TermAssociation;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Term associations as a dictionary-encoded graph in compressed sparse row (CSR) form.
+ * Terms are sorted and interned to ids; the associations of term {@code t} are the slice
+ * {@code rows[t]..rows[t + 1]} of the target, url and weight (relevance) arrays, ordered
+ * by descending relevance, so the associations above a threshold are a prefix of the slice
+ * found by binary search.
+ *
+ * <p>All arrays are views of one buffer in the snapshot format: a header (magic, version,
+ * CRC32 checksum of the body and sizes) followed by the arrays and the UTF-8 encoded terms
+ * and ontology urls. A built graph is held in a heap buffer, a snapshot file is memory mapped.
+ * Every ontology url is stored with the completion time of the indexing its associations
+ * come from, so a snapshot can be checked against the indexed ontologies.</p>
+ */
+public final class TermAssociationGraph {
+
+    private static final int MAGIC = 0x46445041;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 40;
+
+    private static final int OFFSET_VERSION = 4;
+
+    private static final int OFFSET_CHECKSUM = 8;
+
+    private static final int OFFSET_TERM_COUNT = 16;
+
+    private static final int OFFSET_URL_COUNT = 20;
+
+    private static final int OFFSET_ASSOCIATION_COUNT = 24;
+
+    private static final int OFFSET_TERM_BYTES = 28;
+
+    private static final int OFFSET_URL_BYTES = 32;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final TermAssociationGraph EMPTY = new Builder(List.of()).build();
+
+    private final ByteBuffer buffer;
+
+    private final URL[] urls;
+
+    private final LongBuffer indexedAt;
+
+    private final int termCount;
+
+    private final IntBuffer termOffsets;
+
+    private final IntBuffer rows;
+
+    private final IntBuffer targets;
+
+    private final IntBuffer urlIds;
+
+    private final DoubleBuffer weights;
+
+    private final ByteBuffer termBytes;
+
+    private TermAssociationGraph(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.termCount = buffer.getInt(OFFSET_TERM_COUNT);
+        final int urlCount = buffer.getInt(OFFSET_URL_COUNT);
+        final int associationCount = buffer.getInt(OFFSET_ASSOCIATION_COUNT);
+        final int termBytesLength = buffer.getInt(OFFSET_TERM_BYTES);
+        final int urlBytesLength = buffer.getInt(OFFSET_URL_BYTES);
+
+        int position = HEADER_SIZE;
+        this.termOffsets = buffer.slice(position, (termCount + 1) * Integer.BYTES).asIntBuffer();
+        position += (termCount + 1) * Integer.BYTES;
+        final IntBuffer urlOffsets = buffer.slice(position, (urlCount + 1) * Integer.BYTES).asIntBuffer();
+        position += (urlCount + 1) * Integer.BYTES;
+        this.indexedAt = buffer.slice(position, urlCount * Long.BYTES).asLongBuffer();
+        position += urlCount * Long.BYTES;
+        this.rows = buffer.slice(position, (termCount + 1) * Integer.BYTES).asIntBuffer();
+        position += (termCount + 1) * Integer.BYTES;
+        this.targets = buffer.slice(position, associationCount * Integer.BYTES).asIntBuffer();
+        position += associationCount * Integer.BYTES;
+        this.urlIds = buffer.slice(position, associationCount * Integer.BYTES).asIntBuffer();
+        position += associationCount * Integer.BYTES;
+        this.weights = buffer.slice(position, associationCount * Double.BYTES).asDoubleBuffer();
+        position += associationCount * Double.BYTES;
+        this.termBytes = buffer.slice(position, termBytesLength);
+        position += termBytesLength;
+        final ByteBuffer urlBytes = buffer.slice(position, urlBytesLength);
+
+        this.urls = new URL[urlCount];
+        for (int url = 0; url < urlCount; url++) {
+            urls[url] = toUrl(decode(urlBytes, urlOffsets.get(url), urlOffsets.get(url + 1)));
+        }
+    }
+
+    public static TermAssociationGraph empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a graph (in a heap buffer) from the associations of the given indexed ontologies.
+     */
+    public static TermAssociationGraph build(List<IndexedOntology> ontologies,
+                                             Iterator<TermAssociation> associations) {
+        final Builder builder = new Builder(ontologies);
+        associations.forEachRemaining(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Open a snapshot file by memory mapping it, empty if the file is not a valid snapshot
+     * of the current version (so it should be rebuilt).
+     */
+    public static Optional<TermAssociationGraph> open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(OFFSET_VERSION) != VERSION
+                    || buffer.getLong(OFFSET_CHECKSUM) != checksum(buffer)) {
+                return Optional.empty();
+            }
+            return Optional.of(new TermAssociationGraph(buffer));
+        }
+    }
+
+    /**
+     * Write the graph as a snapshot file, replacing an existing one atomically.
+     */
+    public void writeTo(Path path) throws IOException {
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer content = buffer.duplicate().clear();
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public List<URL> getUrls() {
+        return List.of(urls);
+    }
+
+    /**
+     * Completion time of the indexing per ontology url (with millisecond precision).
+     */
+    public Map<String, Instant> getIndexedAt() {
+        final Map<String, Instant> result = new HashMap<>();
+        for (int url = 0; url < urls.length; url++) {
+            result.put(urls[url].toString(), Instant.ofEpochMilli(indexedAt.get(url)));
+        }
+        return result;
+    }
+
+    public int getTermCount() {
+        return termCount;
+    }
+
+    public int getAssociationCount() {
+        return targets.limit();
+    }
+
+    /**
+     * Associations of the given term with a relevance above the threshold, most relevant first.
+     */
+    public List<TermAssociation> getAssociations(String key, double threshold) {
+        final int termId = findTerm(key);
+        if (termId < 0) {
+            return List.of();
+        }
+        final int start = rows.get(termId);
+        final int end = countAbove(start, rows.get(termId + 1), threshold);
+        final List<TermAssociation> result = new ArrayList<>(end - start);
+        for (int index = start; index < end; index++) {
+            result.add(new TermAssociation(null, key, getTerm(targets.get(index)), weights.get(index),
+                    urls[urlIds.get(index)]));
+        }
+        return result;
+    }
+
+    private String getTerm(int termId) {
+        return decode(termBytes, termOffsets.get(termId), termOffsets.get(termId + 1));
+    }
+
+    /**
+     * Binary search in the sorted term dictionary.
+     */
+    private int findTerm(String key) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int comparison = getTerm(middle).compareTo(key);
+            if (comparison < 0) {
+                low = middle + 1;
+            }
+            else if (comparison > 0) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Binary search for the end of the prefix of (descending) weights above the threshold.
+     */
+    private int countAbove(int start, int end, double threshold) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (weights.get(middle) > threshold) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long checksum(ByteBuffer buffer) {
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.limit() - HEADER_SIZE));
+        return crc.getValue();
+    }
+
+    private static String decode(ByteBuffer bytes, int start, int end) {
+        final byte[] value = new byte[end - start];
+        bytes.get(start, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static URL toUrl(String url) {
+        try {
+            return new URL(url);
+        }
+        catch (MalformedURLException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Collects associations as an edge list of primitive arrays and lays them out as rows.
+     */
+    private static final class Builder {
+
+        private final Map<String, Integer> termIds = new HashMap<>();
+
+        private final List<String> terms = new ArrayList<>();
+
+        private final Map<String, Integer> urlIds = new HashMap<>();
+
+        private final List<String> urls = new ArrayList<>();
+
+        private final List<Long> urlIndexedAt = new ArrayList<>();
+
+        private int[] sources = new int[INITIAL_CAPACITY];
+
+        private int[] targets = new int[INITIAL_CAPACITY];
+
+        private double[] weights = new double[INITIAL_CAPACITY];
+
+        private int[] edgeUrls = new int[INITIAL_CAPACITY];
+
+        private int size;
+
+        private Builder(List<IndexedOntology> ontologies) {
+            for (IndexedOntology ontology : ontologies) {
+                intern(urlIds, urls, ontology.getUrl().toString());
+                urlIndexedAt.add(ontology.getIndexedAt().toEpochMilli());
+            }
+        }
+
+        private void add(TermAssociation association) {
+            if (size == sources.length) {
+                final int capacity = size * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                edgeUrls = Arrays.copyOf(edgeUrls, capacity);
+            }
+            sources[size] = intern(termIds, terms, association.getKey());
+            targets[size] = intern(termIds, terms, association.getValue());
+            weights[size] = association.getRelevance();
+            edgeUrls[size] = intern(urlIds, urls, association.getUrl().toString());
+            if (urlIndexedAt.size() < urls.size()) {
+                // Associations of an ontology that was not given: its indexing is unknown
+                urlIndexedAt.add(0L);
+            }
+            size++;
+        }
+
+        private TermAssociationGraph build() {
+            // 1. Sort the dictionary, so terms can be found by binary search
+            final String[] sortedTerms = terms.toArray(String[]::new);
+            Arrays.sort(sortedTerms);
+            final int[] termIdMap = new int[sortedTerms.length];
+            for (int term = 0; term < sortedTerms.length; term++) {
+                termIdMap[termIds.get(sortedTerms[term])] = term;
+            }
+
+            // 2. Row offsets from the number of associations per term
+            final int termCount = sortedTerms.length;
+            final int[] rows = new int[termCount + 1];
+            for (int edge = 0; edge < size; edge++) {
+                rows[termIdMap[sources[edge]] + 1]++;
+            }
+            for (int term = 0; term < termCount; term++) {
+                rows[term + 1] += rows[term];
+            }
+
+            // 3. Place every association in its row
+            final int[] positions = Arrays.copyOf(rows, termCount);
+            final int[] rowTargets = new int[size];
+            final double[] rowWeights = new double[size];
+            final int[] rowUrls = new int[size];
+            for (int edge = 0; edge < size; edge++) {
+                final int position = positions[termIdMap[sources[edge]]]++;
+                rowTargets[position] = termIdMap[targets[edge]];
+                rowWeights[position] = weights[edge];
+                rowUrls[position] = edgeUrls[edge];
+            }
+
+            // 4. Order every row by descending relevance
+            for (int term = 0; term < termCount; term++) {
+                sortRow(rows[term], rows[term + 1], rowTargets, rowWeights, rowUrls);
+            }
+            return new TermAssociationGraph(layout(
+                    encode(List.of(sortedTerms)), encode(urls), urlIndexedAt, rows, rowTargets, rowUrls, rowWeights
+            ));
+        }
+
+        private static ByteBuffer layout(
+                List<byte[]> termValues, List<byte[]> urlValues, List<Long> urlIndexedAt,
+                int[] rows, int[] rowTargets, int[] rowUrls, double[] rowWeights
+        ) {
+            final int termBytesLength = termValues.stream().mapToInt(value -> value.length).sum();
+            final int urlBytesLength = urlValues.stream().mapToInt(value -> value.length).sum();
+            final long size = HEADER_SIZE
+                    + (long) (termValues.size() + 1 + urlValues.size() + 1 + rows.length) * Integer.BYTES
+                    + (long) urlValues.size() * Long.BYTES
+                    + (long) rowTargets.length * (Integer.BYTES * 2 + Double.BYTES)
+                    + termBytesLength + urlBytesLength;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Term association graph exceeds 2 GB");
+            }
+            final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(0)
+                    .putInt(termValues.size()).putInt(urlValues.size()).putInt(rowTargets.length)
+                    .putInt(termBytesLength).putInt(urlBytesLength)
+                    .putInt(0);
+            putOffsets(buffer, termValues);
+            putOffsets(buffer, urlValues);
+            urlIndexedAt.forEach(buffer::putLong);
+            buffer.asIntBuffer().put(rows);
+            buffer.position(buffer.position() + rows.length * Integer.BYTES);
+            buffer.asIntBuffer().put(rowTargets);
+            buffer.position(buffer.position() + rowTargets.length * Integer.BYTES);
+            buffer.asIntBuffer().put(rowUrls);
+            buffer.position(buffer.position() + rowUrls.length * Integer.BYTES);
+            buffer.asDoubleBuffer().put(rowWeights);
+            buffer.position(buffer.position() + rowWeights.length * Double.BYTES);
+            termValues.forEach(buffer::put);
+            urlValues.forEach(buffer::put);
+            buffer.putLong(OFFSET_CHECKSUM, checksum(buffer));
+            return buffer.clear();
+        }
+
+        private static void putOffsets(ByteBuffer buffer, List<byte[]> values) {
+            int offset = 0;
+            buffer.putInt(offset);
+            for (byte[] value : values) {
+                offset += value.length;
+                buffer.putInt(offset);
+            }
+        }
+
+        private static List<byte[]> encode(List<String> values) {
+            return values.stream().map(value -> value.getBytes(StandardCharsets.UTF_8)).toList();
+        }
+
+        private static void sortRow(int start, int end, int[] rowTargets, double[] rowWeights, int[] rowUrls) {
+            if (end - start < 2) {
+                return;
+            }
+            final Integer[] order = new Integer[end - start];
+            for (int index = 0; index < order.length; index++) {
+                order[index] = start + index;
+            }
+            Arrays.sort(order, (left, right) -> Double.compare(rowWeights[right], rowWeights[left]));
+            final int[] sortedTargets = new int[order.length];
+            final double[] sortedWeights = new double[order.length];
+            final int[] sortedUrls = new int[order.length];
+            for (int index = 0; index < order.length; index++) {
+                sortedTargets[index] = rowTargets[order[index]];
+                sortedWeights[index] = rowWeights[order[index]];
+                sortedUrls[index] = rowUrls[order[index]];
+            }
+            System.arraycopy(sortedTargets, 0, rowTargets, start, order.length);
+            System.arraycopy(sortedWeights, 0, rowWeights, start, order.length);
+            System.arraycopy(sortedUrls, 0, rowUrls, start, order.length);
+        }
+
+        private static int intern(Map<String, Integer> ids, List<String> values, String value) {
+            final Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            ids.put(value, values.size());
+            values.add(value);
+            return values.size() - 1;
+        }
+    }
+}
@@ -29,8 +29,10 @@ import nl.dtls.fairdatapoint.database.mongo.migration.development.user.data.User
 import nl.dtls.fairdatapoint.database.rdf.migration.development.metadata.data.RdfMetadataFixtures;
 import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
 import nl.dtls.fairdatapoint.database.rdf.repository.generic.GenericMetadataRepository;
+import nl.dtls.fairdatapoint.database.search.MetadataSearchIndex;
 import nl.dtls.fairdatapoint.entity.metadata.MetadataState;
 import nl.dtls.fairdatapoint.entity.resource.ResourceDefinition;
+import nl.dtls.fairdatapoint.service.metadata.common.MetadataCaches;
 import nl.dtls.fairdatapoint.service.metadata.common.MetadataService;
 import nl.dtls.fairdatapoint.service.metadata.exception.MetadataServiceException;
 import nl.dtls.fairdatapoint.service.metadata.state.MetadataStateService;
@@ -75,6 +77,12 @@ public class RdfMetadataMigration implements Migration {
     @Autowired
     private MetadataStateService metadataStateService;
 
+    @Autowired
+    private MetadataCaches metadataCaches;
+
+    @Autowired
+    private MetadataSearchIndex metadataSearchIndex;
+
     @Autowired
     @Qualifier("persistentUrl")
     private String persistentUrl;
@@ -83,6 +91,8 @@ public class RdfMetadataMigration implements Migration {
         try {
             // 1. Remove all previous metadata
             metadataRepository.removeAll();
+            metadataCaches.invalidateAll();
+            metadataSearchIndex.clear();
 
             // 2. Auth user
             final String adminUuid = userFixtures.admin().getUuid();
@@ -91,6 +101,7 @@ public class RdfMetadataMigration implements Migration {
 
             // 3. Load metadata fixtures
             importDefaultFixtures(persistentUrl);
+            metadataCaches.invalidateAll();
         }
         catch (MetadataServiceException | MetadataRepositoryException exception) {
             exception.printStackTrace();
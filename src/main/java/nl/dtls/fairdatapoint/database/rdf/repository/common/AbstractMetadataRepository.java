@@ -22,8 +22,6 @@
  */
 package nl.dtls.fairdatapoint.database.rdf.repository.common;
 
-import com.google.common.base.Charsets;
-import com.google.common.io.Resources;
 import lombok.extern.slf4j.Slf4j;
 import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
 import nl.dtls.fairdatapoint.entity.search.SearchFilterValue;
@@ -34,28 +32,34 @@ import org.eclipse.rdf4j.model.*;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryResults;
 import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.eclipse.rdf4j.repository.sparql.SPARQLRepository;
+import org.eclipse.rdf4j.rio.helpers.NTriplesUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.io.IOException;
-import java.net.URL;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static java.util.Optional.ofNullable;
+import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.l;
+import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.s;
 
 @Slf4j
 public abstract class AbstractMetadataRepository {
 
     private static final String FIND_ENTITY_BY_LITERAL = "findEntityByLiteral.sparql";
-    private static final String FIND_ALL_ENTITIES = "findAllEntities.sparql";
+    private static final String COUNT_ENTITIES_BY_URL_PREFIX = "countEntitiesByUrlPrefix.sparql";
+    private static final String FIND_ENTITY_URL_PREFIXES = "findEntityUrlPrefixes.sparql";
     private static final String FIND_CHILD_TITLES = "findChildTitles.sparql";
     private static final String FIND_OBJECT_FOR_PREDICATE = "findObjectsForPredicate.sparql";
+    private static final String FIND_GRAPH_STATEMENTS = "findGraphStatements.sparql";
 
     private static final String MSG_ERROR_RESOURCE = "Error retrieving resource: ";
     private static final String MSG_ERROR_URI = "Error retrieving repository URI: ";
@@ -63,7 +67,6 @@ public abstract class AbstractMetadataRepository {
     private static final String MSG_ERROR_REMOVE_ALL = "Error remove all: ";
     private static final String MSG_ERROR_EXISTS = "Error check statement existence: ";
     private static final String MSG_ERROR_SAVE = "Error storing statements: ";
-    private static final String MSG_ERROR_SPARQL_LOAD = "Error reading %s.sparql file (error: %s)";
 
     private static final String FIELD_VALUE = "value";
     private static final String FIELD_LABEL = "label";
@@ -74,16 +77,34 @@ public abstract class AbstractMetadataRepository {
     private static final String FIELD_DESCRIPTION = "description";
     private static final String FIELD_REL_PRED = "relationPredicate";
     private static final String FIELD_REL_OBJ = "relationObject";
+    private static final String FIELD_URL_PREFIX = "urlPrefix";
+    private static final String FIELD_COUNT = "count";
+    private static final String FIELD_GRAPH = "graph";
+    private static final String FIELD_SUBJECT = "subject";
+    private static final String FIELD_PREDICATE = "predicate";
+    private static final String FIELD_OBJECT = "object";
 
     @Autowired
     private Repository repository;
 
+    @Autowired
+    private MetadataGraphCache metadataGraphCache;
+
+    @Autowired
+    private MetadataUnitOfWork metadataUnitOfWork;
+
+    @Autowired
+    private SparqlQueryRegistry sparqlQueryRegistry;
+
+    @Autowired
+    private SparqlQueryGuard sparqlQueryGuard;
+
     protected Repository getRepository() {
         return repository;
     }
 
     public List<Resource> findResources() throws MetadataRepositoryException {
-        try (RepositoryConnection conn = repository.getConnection()) {
+        try (RepositoryConnection conn = metadataUnitOfWork.getConnection()) {
 
             return Iterations.asList(
                     conn.getContextIDs()
@@ -95,23 +116,130 @@ public abstract class AbstractMetadataRepository {
     }
 
     public List<Statement> find(IRI context) throws MetadataRepositoryException {
-        try (RepositoryConnection conn = repository.getConnection()) {
-            return Iterations.asList(
+        // Uncommitted changes of a unit of work must not reach the cache
+        if (context == null || metadataUnitOfWork.isActive()) {
+            return findUncached(context);
+        }
+        final List<Statement> cached = metadataGraphCache.get(context);
+        if (cached != null) {
+            return cached;
+        }
+        final long loadGeneration = metadataGraphCache.getGeneration();
+        final List<Statement> statements = findUncached(context);
+        metadataGraphCache.put(context, statements, loadGeneration);
+        return statements;
+    }
+
+    public Map<IRI, List<Statement>> find(Collection<IRI> contexts) throws MetadataRepositoryException {
+        final Map<IRI, List<Statement>> graphs = new LinkedHashMap<>();
+        if (metadataUnitOfWork.isActive()) {
+            final Map<Resource, List<Statement>> loaded = findGraphsUncached(new LinkedHashSet<>(contexts));
+            contexts.forEach(context -> graphs.put(context, loaded.getOrDefault(context, List.of())));
+            return graphs;
+        }
+        final Set<IRI> missing = new LinkedHashSet<>();
+        for (IRI context : contexts) {
+            final List<Statement> cached = metadataGraphCache.get(context);
+            if (cached == null) {
+                missing.add(context);
+            }
+            else {
+                graphs.put(context, cached);
+            }
+        }
+        if (missing.isEmpty()) {
+            return graphs;
+        }
+        final long loadGeneration = metadataGraphCache.getGeneration();
+        final Map<Resource, List<Statement>> loaded = findGraphsUncached(missing);
+        for (IRI context : missing) {
+            final List<Statement> statements = List.copyOf(loaded.getOrDefault(context, List.of()));
+            metadataGraphCache.put(context, statements, loadGeneration);
+            graphs.put(context, statements);
+        }
+        return graphs;
+    }
+
+    private Map<Resource, List<Statement>> findGraphsUncached(Collection<IRI> contexts)
+            throws MetadataRepositoryException {
+        final Map<Resource, List<Statement>> graphs = new HashMap<>();
+        if (contexts.isEmpty()) {
+            return graphs;
+        }
+        try (RepositoryConnection conn = metadataUnitOfWork.getConnection()) {
+            if (repository instanceof SPARQLRepository) {
+                // Remote stores: one query instead of one request per graph
+                final String queryString = format(
+                        sparqlQueryRegistry.get(FIND_GRAPH_STATEMENTS, AbstractMetadataRepository.class).getText(),
+                        contexts.stream().map(NTriplesUtil::toNTriplesString).collect(Collectors.joining(" "))
+                );
+                try (TupleQueryResult result = conn.prepareTupleQuery(queryString).evaluate()) {
+                    for (BindingSet item : result) {
+                        final Resource graph = (Resource) item.getValue(FIELD_GRAPH);
+                        graphs.computeIfAbsent(graph, key -> new ArrayList<>()).add(s(
+                                (Resource) item.getValue(FIELD_SUBJECT),
+                                (IRI) item.getValue(FIELD_PREDICATE),
+                                item.getValue(FIELD_OBJECT),
+                                graph
+                        ));
+                    }
+                }
+            }
+            else {
+                // Sail stores: one scan filtered by all requested contexts
+                try (RepositoryResult<Statement> result =
+                             conn.getStatements(null, null, null, contexts.toArray(new Resource[0]))) {
+                    for (Statement statement : result) {
+                        graphs.computeIfAbsent(statement.getContext(), key -> new ArrayList<>()).add(statement);
+                    }
+                }
+            }
+            return graphs;
+        }
+        catch (RepositoryException exception) {
+            throw new MetadataRepositoryException(MSG_ERROR_RESOURCE + exception.getMessage());
+        }
+    }
+
+    private List<Statement> findUncached(IRI context) throws MetadataRepositoryException {
+        try (RepositoryConnection conn = metadataUnitOfWork.getConnection()) {
+            return List.copyOf(Iterations.asList(
                     conn.getStatements(null, null, null, context)
-            );
+            ));
         }
         catch (RepositoryException exception) {
             throw new MetadataRepositoryException(MSG_ERROR_RESOURCE + exception.getMessage());
         }
     }
-    
-    public int countTotal() throws MetadataRepositoryException {
-    	
-    	return runSparqlQuery(
-                FIND_ALL_ENTITIES,
+
+    public Map<String, Long> countEntitiesByUrlPrefix(String baseUrl) throws MetadataRepositoryException {
+        final Map<String, Long> counts = new HashMap<>();
+        runSparqlQuery(
+                COUNT_ENTITIES_BY_URL_PREFIX,
+                AbstractMetadataRepository.class,
+                Map.of("baseUrl", l(baseUrl))
+        ).forEach(item -> {
+            counts.put(
+                    item.getValue(FIELD_URL_PREFIX).stringValue(),
+                    ((Literal) item.getValue(FIELD_COUNT)).longValue()
+            );
+        });
+        return counts;
+    }
+
+    public Map<String, String> findEntityUrlPrefixes(String baseUrl) throws MetadataRepositoryException {
+        final Map<String, String> urlPrefixes = new HashMap<>();
+        runSparqlQuery(
+                FIND_ENTITY_URL_PREFIXES,
                 AbstractMetadataRepository.class,
-                new HashMap<String, Value>()
-        ).size();
+                Map.of("baseUrl", l(baseUrl))
+        ).forEach(item -> {
+            urlPrefixes.put(
+                    item.getValue(FIELD_ENTITY).stringValue(),
+                    item.getValue(FIELD_URL_PREFIX).stringValue()
+            );
+        });
+        return urlPrefixes;
     }
 
     public List<SearchResult> findByLiteral(Literal query) throws MetadataRepositoryException {
@@ -125,11 +253,8 @@ public abstract class AbstractMetadataRepository {
                 .toList();
     }
 
-    public List<SearchResult> findBySparqlQuery(String query) throws MetadataRepositoryException {
-        return runSparqlQuery(query)
-                .stream()
-                .map(item -> toSearchResult(item, false))
-                .toList();
+    public SparqlQueryResult<SearchResult> findBySparqlQuery(String query) throws MetadataRepositoryException {
+        return runGuardedSparqlQuery(query, item -> toSearchResult(item, false));
     }
 
     private SearchResult toSearchResult(BindingSet item, boolean withRelation) {
@@ -149,15 +274,15 @@ public abstract class AbstractMetadataRepository {
         );
     }
 
-    public List<SearchFilterValue> findByFilterPredicate(IRI predicateUri)
+    public Map<String, List<SearchFilterValue>> findByFilterPredicate(IRI predicateUri)
             throws MetadataRepositoryException {
-        final Map<String, String> values = new HashMap<>();
+        final Map<String, Map<String, String>> values = new HashMap<>();
         runSparqlQuery(
                 FIND_OBJECT_FOR_PREDICATE,
                 AbstractMetadataRepository.class,
                 Map.of("predicate", predicateUri)
         ).forEach(entry -> {
-            values.put(
+            values.computeIfAbsent(entry.getValue(FIELD_GRAPH).stringValue(), graph -> new HashMap<>()).put(
                     entry.getValue(FIELD_VALUE).stringValue(),
                     Optional.ofNullable(entry.getValue(FIELD_LABEL))
                             .map(Value::stringValue)
@@ -167,8 +292,13 @@ public abstract class AbstractMetadataRepository {
         return values
                 .entrySet()
                 .stream()
-                .map(entry -> new SearchFilterValue(entry.getKey(), entry.getValue()))
-                .toList();
+                .collect(Collectors.toMap(Map.Entry::getKey, graph -> graph
+                        .getValue()
+                        .entrySet()
+                        .stream()
+                        .map(entry -> new SearchFilterValue(entry.getKey(), entry.getValue()))
+                        .toList()
+                ));
     }
 
     public Map<String, String> findChildTitles(IRI parent, IRI relation)
@@ -194,7 +324,7 @@ public abstract class AbstractMetadataRepository {
 
     public boolean checkExistence(Resource subject, IRI predicate, Value object)
             throws MetadataRepositoryException {
-        try (RepositoryConnection conn = repository.getConnection()) {
+        try (RepositoryConnection conn = metadataUnitOfWork.getConnection()) {
             return conn.hasStatement(subject, predicate, object, false);
         }
         catch (RepositoryException exception) {
@@ -203,21 +333,27 @@ public abstract class AbstractMetadataRepository {
     }
 
     public void save(List<Statement> statements, IRI context) throws MetadataRepositoryException {
-        try (RepositoryConnection conn = repository.getConnection()) {
+        try (RepositoryConnection conn = metadataUnitOfWork.getConnection()) {
             conn.add(statements, context);
         }
         catch (RepositoryException exception) {
             throw new MetadataRepositoryException(MSG_ERROR_SAVE + exception.getMessage());
         }
+        finally {
+            evictGraph(context);
+        }
     }
 
     public void removeAll() throws MetadataRepositoryException {
-        try (RepositoryConnection conn = repository.getConnection()) {
+        try (RepositoryConnection conn = metadataUnitOfWork.getConnection()) {
             conn.clear();
         }
         catch (RepositoryException exception) {
             throw new MetadataRepositoryException(MSG_ERROR_REMOVE_ALL + exception.getMessage());
         }
+        finally {
+            metadataUnitOfWork.afterCompletion(metadataGraphCache::clearCache);
+        }
     }
 
     public void remove(IRI uri) throws MetadataRepositoryException {
@@ -226,44 +362,56 @@ public abstract class AbstractMetadataRepository {
 
     public void removeStatement(Resource subject, IRI predicate, Value object, IRI context)
             throws MetadataRepositoryException {
-        try (RepositoryConnection conn = repository.getConnection()) {
+        try (RepositoryConnection conn = metadataUnitOfWork.getConnection()) {
             conn.remove(subject, predicate, object, context);
         }
         catch (RepositoryException exception) {
             throw new MetadataRepositoryException(MSG_ERROR_REMOVE);
         }
+        finally {
+            evictGraph(context);
+        }
+    }
+
+    private void evictGraph(IRI context) {
+        // Without a context the write may touch any graph
+        if (context == null) {
+            metadataUnitOfWork.afterCompletion(metadataGraphCache::clearCache);
+        }
+        else {
+            metadataUnitOfWork.afterCompletion(() -> metadataGraphCache.evict(context));
+        }
     }
 
     public List<BindingSet> runSparqlQuery(String queryName, Class repositoryType,
                                            Map<String, Value> bindings)
             throws MetadataRepositoryException {
-        try (RepositoryConnection conn = repository.getConnection()) {
-            final String queryString = loadSparqlQuery(queryName, repositoryType);
-            final TupleQuery query = conn.prepareTupleQuery(queryString);
+        final SparqlQuery sparqlQuery = sparqlQueryRegistry.get(queryName, repositoryType);
+        final long start = System.nanoTime();
+        try (RepositoryConnection conn = metadataUnitOfWork.getConnection()) {
+            final TupleQuery query = sparqlQuery.prepare(conn);
             bindings.forEach(query::setBinding);
             return QueryResults.asList(query.evaluate());
         }
         catch (RepositoryException exception) {
             throw new MetadataRepositoryException(MSG_ERROR_URI + exception.getMessage());
         }
-        catch (IOException exception) {
-            throw new MetadataRepositoryException(format(MSG_ERROR_SPARQL_LOAD, queryName,
-                    exception.getMessage()));
+        finally {
+            sparqlQuery.getTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
-    public List<BindingSet> runSparqlQuery(String queryString) throws MetadataRepositoryException {
-        try (RepositoryConnection conn = repository.getConnection()) {
-            final TupleQuery query = conn.prepareTupleQuery(queryString);
-            return query.evaluate().stream().toList();
+    public SparqlQueryResult<BindingSet> runSparqlQuery(String queryString) throws MetadataRepositoryException {
+        return runGuardedSparqlQuery(queryString, Function.identity());
+    }
+
+    private <T> SparqlQueryResult<T> runGuardedSparqlQuery(String queryString, Function<BindingSet, T> mapper)
+            throws MetadataRepositoryException {
+        try (RepositoryConnection conn = metadataUnitOfWork.getConnection()) {
+            return sparqlQueryGuard.evaluate(conn.prepareTupleQuery(queryString), mapper);
         }
         catch (RepositoryException exception) {
             throw new MetadataRepositoryException(MSG_ERROR_URI + exception.getMessage());
         }
     }
-
-    protected String loadSparqlQuery(String queryName, Class repositoryType) throws IOException {
-        final URL fileURL = repositoryType.getResource(queryName);
-        return Resources.toString(fileURL, Charsets.UTF_8);
-    }
 }
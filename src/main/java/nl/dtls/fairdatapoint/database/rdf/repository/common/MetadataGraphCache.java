@@ -0,0 +1,139 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.rdf.repository.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded read-through cache of immutable statement snapshots of metadata graphs
+ * (one entry per named graph), kept in least-recently-used order and limited by
+ * the total number of cached statements.
+ */
+@Component
+public class MetadataGraphCache {
+
+    private static final String METRIC_REQUESTS = "fdp.metadata.graph.cache.requests";
+    private static final String METRIC_EVICTIONS = "fdp.metadata.graph.cache.evictions";
+    private static final String METRIC_GRAPHS = "fdp.metadata.graph.cache.graphs";
+    private static final String METRIC_STATEMENTS = "fdp.metadata.graph.cache.statements";
+    private static final String TAG_RESULT = "result";
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<String, List<Statement>> graphs =
+            new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${repository.cache.maxStatements:500000}")
+    private long maxStatements;
+
+    private long statementCount;
+
+    private long generation;
+
+    private Counter hits;
+
+    private Counter misses;
+
+    private Counter evictions;
+
+    @PostConstruct
+    public void registerMetrics() {
+        hits = meterRegistry.counter(METRIC_REQUESTS, TAG_RESULT, "hit");
+        misses = meterRegistry.counter(METRIC_REQUESTS, TAG_RESULT, "miss");
+        evictions = meterRegistry.counter(METRIC_EVICTIONS);
+        Gauge.builder(METRIC_GRAPHS, this, MetadataGraphCache::getGraphCount).register(meterRegistry);
+        Gauge.builder(METRIC_STATEMENTS, this, MetadataGraphCache::getStatementCount).register(meterRegistry);
+    }
+
+    public synchronized List<Statement> get(IRI context) {
+        final List<Statement> statements = graphs.get(context.stringValue());
+        if (statements == null) {
+            misses.increment();
+        }
+        else {
+            hits.increment();
+        }
+        return statements;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized void put(IRI context, List<Statement> statements, long loadGeneration) {
+        // Snapshot loaded before a concurrent write must not be cached
+        if (loadGeneration != generation || statements.size() > maxStatements) {
+            return;
+        }
+        final List<Statement> previous = graphs.put(context.stringValue(), statements);
+        if (previous != null) {
+            statementCount -= previous.size();
+        }
+        statementCount += statements.size();
+        final Iterator<List<Statement>> eldest = graphs.values().iterator();
+        while (statementCount > maxStatements && eldest.hasNext()) {
+            statementCount -= eldest.next().size();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized void evict(IRI context) {
+        generation++;
+        final List<Statement> previous = graphs.remove(context.stringValue());
+        if (previous != null) {
+            statementCount -= previous.size();
+        }
+    }
+
+    public synchronized void clearCache() {
+        generation++;
+        graphs.clear();
+        statementCount = 0;
+    }
+
+    public synchronized int getGraphCount() {
+        return graphs.size();
+    }
+
+    public synchronized long getStatementCount() {
+        return statementCount;
+    }
+}
@@ -33,6 +33,7 @@ import nl.dtls.fairdatapoint.entity.search.SearchResult;
 import org.eclipse.rdf4j.model.*;
 import org.eclipse.rdf4j.query.BindingSet;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -41,14 +42,18 @@ public interface MetadataRepository {
     List<Resource> findResources() throws MetadataRepositoryException;
 
     List<Statement> find(IRI context) throws MetadataRepositoryException;
-    
-    int countTotal() throws MetadataRepositoryException;
+
+    Map<IRI, List<Statement>> find(Collection<IRI> contexts) throws MetadataRepositoryException;
+
+    Map<String, Long> countEntitiesByUrlPrefix(String baseUrl) throws MetadataRepositoryException;
+
+    Map<String, String> findEntityUrlPrefixes(String baseUrl) throws MetadataRepositoryException;
 
     List<SearchResult> findByLiteral(Literal query) throws MetadataRepositoryException;
 
-    List<SearchResult> findBySparqlQuery(String query) throws MetadataRepositoryException;
+    SparqlQueryResult<SearchResult> findBySparqlQuery(String query) throws MetadataRepositoryException;
 
-    List<SearchFilterValue> findByFilterPredicate(IRI predicateUri)
+    Map<String, List<SearchFilterValue>> findByFilterPredicate(IRI predicateUri)
             throws MetadataRepositoryException;
 
     Map<String, String> findChildTitles(IRI parent, IRI relation)
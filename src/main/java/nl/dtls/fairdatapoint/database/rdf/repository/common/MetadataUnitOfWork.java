@@ -0,0 +1,140 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.rdf.repository.common;
+
+import nl.dtls.fairdatapoint.util.ThrowingSupplier;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.base.RepositoryConnectionWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operation-scoped unit of work: all repository calls made by the current thread
+ * inside {@link #execute(ThrowingSupplier)} share one connection and one transaction.
+ * Nested units of work join the outer one.
+ */
+@Component
+public class MetadataUnitOfWork {
+
+    private final ThreadLocal<Work> current = new ThreadLocal<>();
+
+    @Autowired
+    private Repository repository;
+
+    public <T, E extends Throwable> T execute(ThrowingSupplier<T, E> operation) throws E {
+        if (current.get() != null) {
+            return operation.get();
+        }
+        final Work work = new Work(repository.getConnection());
+        current.set(work);
+        final T result;
+        try {
+            work.connection.begin();
+            result = operation.get();
+            work.connection.commit();
+        }
+        finally {
+            current.remove();
+            try {
+                if (work.connection.isActive()) {
+                    work.connection.rollback();
+                }
+                work.connection.close();
+            }
+            finally {
+                work.afterCompletion.forEach(Runnable::run);
+            }
+        }
+        work.afterCommit.forEach(Runnable::run);
+        return result;
+    }
+
+    public boolean isActive() {
+        return current.get() != null;
+    }
+
+    /**
+     * Connection of the active unit of work (closing it has no effect),
+     * or a new connection if there is none.
+     */
+    public RepositoryConnection getConnection() {
+        final Work work = current.get();
+        if (work == null) {
+            return repository.getConnection();
+        }
+        return work.sharedConnection;
+    }
+
+    /**
+     * Runs the action once the active unit of work is committed or rolled back,
+     * or right away if there is none (e.g. cache evictions).
+     */
+    public void afterCompletion(Runnable action) {
+        final Work work = current.get();
+        if (work == null) {
+            action.run();
+        }
+        else {
+            work.afterCompletion.add(action);
+        }
+    }
+
+    /**
+     * Runs the action once the active unit of work is committed (skipped on rollback),
+     * or right away if there is none.
+     */
+    public void afterCommit(Runnable action) {
+        final Work work = current.get();
+        if (work == null) {
+            action.run();
+        }
+        else {
+            work.afterCommit.add(action);
+        }
+    }
+
+    private final class Work {
+
+        private final RepositoryConnection connection;
+
+        private final RepositoryConnection sharedConnection;
+
+        private final List<Runnable> afterCommit = new ArrayList<>();
+
+        private final List<Runnable> afterCompletion = new ArrayList<>();
+
+        private Work(RepositoryConnection connection) {
+            this.connection = connection;
+            this.sharedConnection = new RepositoryConnectionWrapper(repository, connection) {
+                @Override
+                public void close() {
+                    // Closed by the unit of work
+                }
+            };
+        }
+    }
+}
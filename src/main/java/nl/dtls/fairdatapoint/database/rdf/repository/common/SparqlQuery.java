@@ -0,0 +1,72 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.rdf.repository.common;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
+import org.eclipse.rdf4j.repository.DelegatingRepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailTupleQuery;
+
+@AllArgsConstructor
+@Getter
+public class SparqlQuery {
+
+    private final String name;
+
+    private final String text;
+
+    // Null for templates that become valid SPARQL only after substitution
+    private final ParsedTupleQuery parsedQuery;
+
+    private final Timer timer;
+
+    public boolean isTemplate() {
+        return parsedQuery == null;
+    }
+
+    /**
+     * Prepares the query on the connection, reusing the parsed algebra for local (Sail)
+     * stores; other stores (e.g. remote SPARQL endpoints) receive the query text.
+     */
+    public TupleQuery prepare(RepositoryConnection connection) {
+        if (isTemplate()) {
+            throw new IllegalStateException(String.format("SPARQL query '%s' is a template", name));
+        }
+        RepositoryConnection target = connection;
+        while (target instanceof DelegatingRepositoryConnection delegating) {
+            target = delegating.getDelegate();
+        }
+        if (target instanceof SailRepositoryConnection sailConnection) {
+            // Evaluation may optimize the algebra in place, so each execution gets its own copy
+            final ParsedTupleQuery copy = new ParsedTupleQuery(text, parsedQuery.getTupleExpr().clone());
+            copy.setDataset(parsedQuery.getDataset());
+            return new SailTupleQuery(copy, sailConnection);
+        }
+        return connection.prepareTupleQuery(text);
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.rdf.repository.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.common.exception.RDF4JException;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryInterruptedException;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+/**
+ * Evaluates user-composed SPARQL queries within bounds: a maximum execution time,
+ * a maximum number of consumed rows and cancellation, either when the evaluating thread
+ * is interrupted or by {@link #cancel(Thread)} from another thread (e.g. when the client
+ * of an asynchronous request disconnected or it timed out). Cancelling interrupts the
+ * evaluating thread, the query result is only ever used (and closed) by that thread; an
+ * evaluation that does not check for interruption is still stopped by the maximum
+ * execution time. Rows are mapped while the result is streamed, so the raw bindings are
+ * never materialized.
+ */
+@Slf4j
+@Component
+public class SparqlQueryGuard {
+
+    private static final String METRIC_OUTCOME = "fdp.sparql.custom.outcome";
+    private static final String METRIC_ROWS = "fdp.sparql.custom.rows";
+    private static final String TAG_OUTCOME = "outcome";
+
+    private static final String MSG_TIMEOUT = "Query exceeded the maximum execution time of %d seconds";
+    private static final String MSG_CANCELLED = "Query was cancelled";
+
+    private final Map<Thread, Evaluation> evaluations = new ConcurrentHashMap<>();
+
+    @Value("${search.query.maxExecutionTime:20}")
+    private int maxExecutionTime;
+
+    @Value("${search.query.maxRows:10000}")
+    private int maxRows;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SparqlQueryRegistry sparqlQueryRegistry;
+
+    private Counter completedCounter;
+
+    private Counter truncatedCounter;
+
+    private Counter timeoutCounter;
+
+    private Counter cancelledCounter;
+
+    private DistributionSummary rowsSummary;
+
+    @PostConstruct
+    public void registerMeters() {
+        completedCounter = createCounter("completed");
+        truncatedCounter = createCounter("truncated");
+        timeoutCounter = createCounter("timeout");
+        cancelledCounter = createCounter("cancelled");
+        rowsSummary = DistributionSummary.builder(METRIC_ROWS).register(meterRegistry);
+    }
+
+    public <T> SparqlQueryResult<T> evaluate(TupleQuery query, Function<BindingSet, T> mapper) {
+        query.setMaxExecutionTime(maxExecutionTime);
+        final Thread thread = Thread.currentThread();
+        final Evaluation evaluation = new Evaluation();
+        evaluations.put(thread, evaluation);
+        final List<T> rows = new ArrayList<>();
+        final long start = System.nanoTime();
+        try (TupleQueryResult result = query.evaluate()) {
+            while (!isCancelled(thread, evaluation) && result.hasNext()) {
+                if (rows.size() >= maxRows) {
+                    log.warn("SPARQL query truncated after {} rows", maxRows);
+                    truncatedCounter.increment();
+                    return new SparqlQueryResult<>(rows, true);
+                }
+                rows.add(mapper.apply(result.next()));
+            }
+            if (isCancelled(thread, evaluation)) {
+                throw new QueryInterruptedException(MSG_CANCELLED);
+            }
+            completedCounter.increment();
+            return new SparqlQueryResult<>(rows, false);
+        }
+        catch (RDF4JException | NoSuchElementException exception) {
+            // An interrupted evaluation may fail in any way (e.g. interrupted I/O of a store)
+            if (isCancelled(thread, evaluation)) {
+                cancelledCounter.increment();
+                throw new QueryInterruptedException(MSG_CANCELLED, exception);
+            }
+            if (exception instanceof QueryInterruptedException) {
+                timeoutCounter.increment();
+                throw new QueryInterruptedException(format(MSG_TIMEOUT, maxExecutionTime), exception);
+            }
+            throw exception;
+        }
+        finally {
+            evaluations.remove(thread, evaluation);
+            if (evaluation.finish()) {
+                // Do not leave the interruption of a cancellation to the next task of a pooled thread
+                Thread.interrupted();
+            }
+            rowsSummary.record(rows.size());
+            sparqlQueryRegistry.getCustomQueryTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Cancel the query being evaluated by the given thread, if any, by interrupting it.
+     */
+    public void cancel(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        final Evaluation evaluation = evaluations.get(thread);
+        if (evaluation != null) {
+            evaluation.cancel(thread);
+        }
+    }
+
+    private boolean isCancelled(Thread thread, Evaluation evaluation) {
+        return thread.isInterrupted() || evaluation.isCancelled();
+    }
+
+    private Counter createCounter(String outcome) {
+        return Counter.builder(METRIC_OUTCOME)
+                .tag(TAG_OUTCOME, outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cancellation state of an evaluation; a thread is only interrupted while it still
+     * evaluates the cancelled query.
+     */
+    private static final class Evaluation {
+
+        private boolean cancelled;
+
+        private boolean finished;
+
+        private synchronized void cancel(Thread thread) {
+            if (!finished) {
+                cancelled = true;
+                thread.interrupt();
+            }
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Returns whether the evaluation was cancelled.
+         */
+        private synchronized boolean finish() {
+            finished = true;
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.rdf.repository.common;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.rdf4j.query.MalformedQueryException;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
+import org.eclipse.rdf4j.query.parser.QueryParserUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Registry of the named SPARQL queries shipped as {@code .sparql} resources, loaded
+ * and parsed once on startup, with an execution timer per query. A query that does not
+ * parse fails the startup unless it is a known template.
+ */
+@Slf4j
+@Component
+public class SparqlQueryRegistry {
+
+    private static final String BASE_PACKAGE = "nl/dtls/fairdatapoint/";
+    private static final String QUERY_PATTERN = "classpath*:" + BASE_PACKAGE + "**/*.sparql";
+
+    private static final String METRIC_QUERY = "fdp.sparql.query";
+    private static final String TAG_QUERY = "query";
+    private static final String CUSTOM_QUERY = "custom";
+
+    // Queries that become valid SPARQL only after text substitution by their owner
+    private static final Set<String> TEMPLATES = Set.of(
+            "database/rdf/repository/common/findGraphStatements.sparql",
+            "service/search/queryTemplate.sparql"
+    );
+
+    private final Map<String, SparqlQuery> queries = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer customQueryTimer;
+
+    @PostConstruct
+    public void loadQueries() throws IOException {
+        customQueryTimer = createTimer(CUSTOM_QUERY);
+        final Resource[] resources = new PathMatchingResourcePatternResolver().getResources(QUERY_PATTERN);
+        for (Resource resource : resources) {
+            final String url = resource.getURL().toString();
+            final String name = url.substring(url.lastIndexOf(BASE_PACKAGE) + BASE_PACKAGE.length());
+            final String text = Resources.toString(resource.getURL(), Charsets.UTF_8);
+            queries.put(name, new SparqlQuery(name, text, parse(name, text), createTimer(name)));
+        }
+        log.info("Loaded {} SPARQL queries", queries.size());
+    }
+
+    public SparqlQuery get(String queryName, Class<?> owner) {
+        final String name = format("%s/%s",
+                owner.getPackageName().replace('.', '/').substring(BASE_PACKAGE.length()), queryName);
+        final SparqlQuery query = queries.get(name);
+        if (query == null) {
+            throw new IllegalArgumentException(format("Unknown SPARQL query '%s'", name));
+        }
+        return query;
+    }
+
+    public Collection<SparqlQuery> getAll() {
+        return queries.values();
+    }
+
+    public Timer getCustomQueryTimer() {
+        return customQueryTimer;
+    }
+
+    private Timer createTimer(String name) {
+        return Timer.builder(METRIC_QUERY)
+                .tag(TAG_QUERY, name)
+                .register(meterRegistry);
+    }
+
+    private ParsedTupleQuery parse(String name, String text) {
+        if (TEMPLATES.contains(name)) {
+            return null;
+        }
+        try {
+            return QueryParserUtil.parseTupleQuery(QueryLanguage.SPARQL, text, null);
+        }
+        catch (MalformedQueryException exception) {
+            throw new IllegalStateException(
+                    format("Invalid SPARQL query '%s': %s", name, exception.getMessage()), exception);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.search;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.dtls.fairdatapoint.config.properties.OntologySearchProperties;
+import nl.dtls.fairdatapoint.database.rdf.repository.common.MetadataRepository;
+import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
+import nl.dtls.fairdatapoint.entity.search.SearchResult;
+import nl.dtls.fairdatapoint.entity.search.SearchResultRelation;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiBits;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.i;
+import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.l;
+import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.s;
+
+/**
+ * Lucene trigram index of the literals of metadata records (one document per
+ * entity, predicate and literal), used by the literal search instead of scanning
+ * every literal in the triple store. Updates are searchable right away (near
+ * real-time) and committed periodically and on shutdown.
+ */
+@Slf4j
+@Component
+public class MetadataSearchIndex {
+
+    private static final String FIELD_GRAPH = "graph";
+    private static final String FIELD_ENTITY = "entity";
+    private static final String FIELD_TYPE = "rdfType";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final String FIELD_PREDICATE = "predicate";
+    private static final String FIELD_VALUE = "value";
+    private static final String FIELD_TRIGRAM = "trigram";
+
+    private static final int GRAM_SIZE = 3;
+    private static final int MAX_QUERY_GRAMS = 64;
+
+    private static final int REBUILD_BATCH_SIZE = 100;
+
+    @Autowired
+    @Qualifier("genericMetadataRepository")
+    private MetadataRepository metadataRepository;
+
+    @Autowired
+    private OntologySearchProperties searchProperties;
+
+    @Autowired
+    private MetadataTermStatistics termStatistics;
+
+    private Directory directory;
+
+    private IndexWriter writer;
+
+    private SearcherManager searcherManager;
+
+    @PostConstruct
+    public void open() throws IOException {
+        final String indexPath = searchProperties.getIndexPath();
+        if (indexPath == null || indexPath.isBlank()) {
+            directory = new ByteBuffersDirectory();
+        }
+        else {
+            directory = FSDirectory.open(Path.of(indexPath));
+        }
+        writer = new IndexWriter(directory, new IndexWriterConfig());
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        // Commits pending changes
+        writer.close();
+        directory.close();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() throws MetadataRepositoryException {
+        if (writer.getDocStats().numDocs == 0 || !loadTermStatistics()) {
+            rebuild();
+        }
+    }
+
+    public void update(IRI graph) {
+        try {
+            final List<Statement> statements = metadataRepository.find(graph);
+            termStatistics.update(graph, statements);
+            writer.updateDocuments(new Term(FIELD_GRAPH, graph.stringValue()), toDocuments(graph, statements));
+            searcherManager.maybeRefresh();
+        }
+        catch (IOException | MetadataRepositoryException exception) {
+            log.error("Failed to update search index of {}: {}", graph, exception.getMessage());
+        }
+    }
+
+    public void clear() {
+        termStatistics.clear();
+        try {
+            writer.deleteAll();
+            commit();
+        }
+        catch (IOException exception) {
+            log.error("Failed to clear search index: {}", exception.getMessage());
+        }
+    }
+
+    public void rebuild() throws MetadataRepositoryException {
+        log.info("Rebuilding search index");
+        try {
+            writer.deleteAll();
+            termStatistics.clear();
+            forEachGraph((graph, statements) -> {
+                termStatistics.update(graph, statements);
+                writer.addDocuments(toDocuments(graph, statements));
+            });
+            commit();
+        }
+        catch (IOException exception) {
+            throw new MetadataRepositoryException("Failed to rebuild search index: " + exception.getMessage());
+        }
+        log.info("Search index contains {} documents", writer.getDocStats().numDocs);
+    }
+
+    @Scheduled(
+            initialDelayString = "${search.indexCommitInterval:PT1M}",
+            fixedDelayString = "${search.indexCommitInterval:PT1M}"
+    )
+    public void commitChanges() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        }
+        catch (IOException exception) {
+            log.error("Failed to commit search index: {}", exception.getMessage());
+        }
+    }
+
+    /**
+     * Literals containing the query anywhere (case-insensitive), or empty if the query
+     * is shorter than a trigram and the index cannot answer it.
+     */
+    public Optional<List<SearchResult>> findByLiteral(String query) throws MetadataRepositoryException {
+        try {
+            final Set<String> grams = trigrams(query);
+            if (grams.isEmpty()) {
+                return Optional.empty();
+            }
+            final BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            grams.stream()
+                    .limit(MAX_QUERY_GRAMS)
+                    .forEach(gram -> builder.add(new TermQuery(new Term(FIELD_TRIGRAM, gram)),
+                            BooleanClause.Occur.MUST));
+            final Query luceneQuery = builder.build();
+            final String needle = query.toLowerCase(Locale.ROOT);
+            final List<SearchResult> results = new ArrayList<>();
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final int count = searcher.count(luceneQuery);
+                if (count == 0) {
+                    return Optional.of(results);
+                }
+                for (ScoreDoc hit : searcher.search(luceneQuery, count).scoreDocs) {
+                    final Document document = searcher.doc(hit.doc);
+                    // Trigrams only narrow down candidates, the literal must contain the whole query
+                    final String value = document.get(FIELD_VALUE);
+                    if (value.toLowerCase(Locale.ROOT).contains(needle)) {
+                        addResults(results, document, value);
+                    }
+                }
+            }
+            finally {
+                searcherManager.release(searcher);
+            }
+            return Optional.of(results);
+        }
+        catch (IOException exception) {
+            throw new MetadataRepositoryException("Failed to search index: " + exception.getMessage());
+        }
+    }
+
+    private void addResults(List<SearchResult> results, Document document, String value) {
+        final SearchResultRelation relation = new SearchResultRelation(document.get(FIELD_PREDICATE), value);
+        for (String type : document.getValues(FIELD_TYPE)) {
+            results.add(new SearchResult(
+                    document.get(FIELD_ENTITY),
+                    type,
+                    document.get(FIELD_TITLE),
+                    document.get(FIELD_DESCRIPTION),
+                    relation
+            ));
+        }
+    }
+
+    /**
+     * Term statistics are only held in memory, they are derived from the stored fields
+     * of a persisted index instead of reading every graph again. Returns false if the
+     * index does not store the graphs or trigrams of its documents (created by an older
+     * version).
+     */
+    private boolean loadTermStatistics() {
+        final Map<String, List<Statement>> graphs = new HashMap<>();
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final IndexReader reader = searcher.getIndexReader();
+                if (reader.numDocs() > 0 && FieldInfos.getMergedFieldInfos(reader).fieldInfo(FIELD_TRIGRAM) == null) {
+                    return false;
+                }
+                final Bits liveDocs = MultiBits.getLiveDocs(reader);
+                for (int doc = 0; doc < reader.maxDoc(); doc++) {
+                    if (liveDocs != null && !liveDocs.get(doc)) {
+                        continue;
+                    }
+                    final Document document = reader.document(doc);
+                    final String graph = document.get(FIELD_GRAPH);
+                    if (graph == null) {
+                        return false;
+                    }
+                    final List<Statement> statements = graphs.computeIfAbsent(graph, key -> new ArrayList<>());
+                    final IRI entity = i(document.get(FIELD_ENTITY));
+                    for (String type : document.getValues(FIELD_TYPE)) {
+                        statements.add(s(entity, RDF.TYPE, i(type)));
+                    }
+                    statements.add(s(entity, i(document.get(FIELD_PREDICATE)), l(document.get(FIELD_VALUE))));
+                }
+            }
+            finally {
+                searcherManager.release(searcher);
+            }
+        }
+        catch (IOException exception) {
+            log.warn("Failed to read search index, rebuilding it: {}", exception.getMessage());
+            return false;
+        }
+        termStatistics.clear();
+        graphs.forEach((graph, statements) -> termStatistics.update(i(graph), statements));
+        return true;
+    }
+
+    private void forEachGraph(GraphConsumer consumer) throws MetadataRepositoryException {
+        final List<IRI> graphs = metadataRepository.findResources()
+                .stream()
+                .filter(Value::isIRI)
+                .map(resource -> i(resource.stringValue()))
+                .toList();
+        for (int from = 0; from < graphs.size(); from += REBUILD_BATCH_SIZE) {
+            final List<IRI> batch = graphs.subList(from, Math.min(from + REBUILD_BATCH_SIZE, graphs.size()));
+            for (Map.Entry<IRI, List<Statement>> graph : metadataRepository.find(batch).entrySet()) {
+                try {
+                    consumer.accept(graph.getKey(), graph.getValue());
+                }
+                catch (IOException exception) {
+                    throw new MetadataRepositoryException("Failed to index " + graph.getKey() + ": "
+                            + exception.getMessage());
+                }
+            }
+        }
+    }
+
+    private List<Document> toDocuments(IRI graph, List<Statement> statements) {
+        final Model model = new LinkedHashModel(statements);
+        final List<Document> documents = new ArrayList<>();
+        for (Resource entity : model.filter(null, DCTERMS.TITLE, null).subjects()) {
+            final Set<Value> types = model.filter(entity, RDF.TYPE, null).objects();
+            if (types.isEmpty()) {
+                continue;
+            }
+            final String title = Models.objectString(model.filter(entity, DCTERMS.TITLE, null)).orElse("");
+            final String description =
+                    Models.objectString(model.filter(entity, DCTERMS.DESCRIPTION, null)).orElse("");
+            for (Statement statement : model.filter(entity, null, null)) {
+                if (statement.getObject().isLiteral()) {
+                    final Document document = new Document();
+                    document.add(new StringField(FIELD_GRAPH, graph.stringValue(), Field.Store.YES));
+                    document.add(new StoredField(FIELD_ENTITY, entity.stringValue()));
+                    types.forEach(type -> document.add(new StoredField(FIELD_TYPE, type.stringValue())));
+                    document.add(new StoredField(FIELD_TITLE, title));
+                    document.add(new StoredField(FIELD_DESCRIPTION, description));
+                    document.add(new StoredField(FIELD_PREDICATE, statement.getPredicate().stringValue()));
+                    final String value = statement.getObject().stringValue();
+                    document.add(new StoredField(FIELD_VALUE, value));
+                    trigrams(value).forEach(gram -> document.add(new StringField(FIELD_TRIGRAM, gram, Field.Store.NO)));
+                    documents.add(document);
+                }
+            }
+        }
+        return documents;
+    }
+
+    private static Set<String> trigrams(String text) {
+        final String lower = text.toLowerCase(Locale.ROOT);
+        final Set<String> grams = new LinkedHashSet<>();
+        for (int start = 0; start + GRAM_SIZE <= lower.length(); start++) {
+            grams.add(lower.substring(start, start + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private void commit() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    @FunctionalInterface
+    private interface GraphConsumer {
+
+        void accept(IRI graph, List<Statement> statements) throws IOException;
+    }
+}
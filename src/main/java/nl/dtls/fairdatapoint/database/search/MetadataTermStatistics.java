@@ -0,0 +1,230 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.search;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import nl.dtls.fairdatapoint.database.ontology.OntologySearcher;
+import nl.dtls.fairdatapoint.entity.search.SearchResult;
+import nl.dtls.fairdatapoint.entity.search.SearchResultRelation;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Term frequency vectors of metadata records and the document frequency of every
+ * term, kept up to date together with the search index so that TF-IDF scoring does
+ * not need to query the triple store or tokenize records per search. A record is a
+ * document per graph it is described in.
+ */
+@Component
+public class MetadataTermStatistics {
+
+    @Autowired
+    private OntologySearcher ontologySearcher;
+
+    private final Map<DocumentKey, TermVector> documents = new HashMap<>();
+
+    private final Map<String, Set<DocumentKey>> documentsByGraph = new HashMap<>();
+
+    private final Map<String, Set<DocumentKey>> documentsByEntity = new HashMap<>();
+
+    private final Map<String, Set<DocumentKey>> postings = new HashMap<>();
+
+    public synchronized void update(IRI graph, List<Statement> statements) {
+        remove(graph);
+        final Model model = new LinkedHashModel(statements);
+        final Set<DocumentKey> keys = new HashSet<>();
+        for (Resource entity : model.filter(null, DCTERMS.TITLE, null).subjects()) {
+            final List<String> types = model.filter(entity, RDF.TYPE, null)
+                    .objects()
+                    .stream()
+                    .map(Value::stringValue)
+                    .toList();
+            if (types.isEmpty()) {
+                continue;
+            }
+            final DocumentKey key = new DocumentKey(graph.stringValue(), entity.stringValue());
+            final TermVector vector = toTermVector(entity, types, model);
+            documents.put(key, vector);
+            documentsByEntity.computeIfAbsent(key.getEntity(), entry -> new HashSet<>()).add(key);
+            vector.getTerms().forEach(term -> postings.computeIfAbsent(term, entry -> new HashSet<>()).add(key));
+            keys.add(key);
+        }
+        if (!keys.isEmpty()) {
+            documentsByGraph.put(graph.stringValue(), keys);
+        }
+    }
+
+    public synchronized void remove(IRI graph) {
+        final Set<DocumentKey> keys = documentsByGraph.remove(graph.stringValue());
+        if (keys == null) {
+            return;
+        }
+        for (DocumentKey key : keys) {
+            final TermVector vector = documents.remove(key);
+            removeFrom(documentsByEntity, key.getEntity(), key);
+            vector.getTerms().forEach(term -> removeFrom(postings, term, key));
+        }
+    }
+
+    public synchronized void clear() {
+        documents.clear();
+        documentsByGraph.clear();
+        documentsByEntity.clear();
+        postings.clear();
+    }
+
+    public synchronized int getDocumentCount() {
+        return documents.size();
+    }
+
+    public synchronized int getDocumentFrequency(String term) {
+        return postings.getOrDefault(term, Collections.emptySet()).size();
+    }
+
+    /**
+     * Sum of the TF-IDF weights of the given words for every record containing at
+     * least one of them in any literal. The term frequency is counted in the title and
+     * description only, as in the literal search scoring; the highest score of the
+     * graphs describing a record is used.
+     */
+    public synchronized Map<String, Double> scoreTfidf(Set<String> words) {
+        final Map<DocumentKey, Double> scores = new HashMap<>();
+        for (String word : words) {
+            final Set<DocumentKey> posting = postings.get(word);
+            if (posting == null) {
+                continue;
+            }
+            final double idf = Math.log((double) documents.size() / posting.size());
+            for (DocumentKey key : posting) {
+                final TermVector vector = documents.get(key);
+                final double tf = vector.getLength() == 0
+                        ? 0
+                        : (double) vector.getFrequencies().getOrDefault(word, 0) / vector.getLength();
+                scores.merge(key, tf * idf, Double::sum);
+            }
+        }
+        final Map<String, Double> entityScores = new HashMap<>();
+        scores.forEach((key, score) -> entityScores.merge(key.getEntity(), score, Math::max));
+        return entityScores;
+    }
+
+    /**
+     * Results of a record for every combination of its types and the literals
+     * containing one of the given words, as returned by the literal search.
+     */
+    public synchronized List<SearchResult> findResults(String uri, Set<String> words) {
+        final List<SearchResult> results = new ArrayList<>();
+        for (DocumentKey key : documentsByEntity.getOrDefault(uri, Collections.emptySet())) {
+            final TermVector vector = documents.get(key);
+            for (TermLiteral literal : vector.getLiterals()) {
+                if (words.stream().anyMatch(literal.getTerms()::contains)) {
+                    vector.getTypes().forEach(type -> results.add(new SearchResult(
+                            uri, type, vector.getTitle(), vector.getDescription(), literal.getRelation()
+                    )));
+                }
+            }
+        }
+        return results;
+    }
+
+    private TermVector toTermVector(Resource entity, List<String> types, Model model) {
+        final String title = Models.objectString(model.filter(entity, DCTERMS.TITLE, null)).orElse("");
+        final String description = Models.objectString(model.filter(entity, DCTERMS.DESCRIPTION, null)).orElse("");
+        final Map<String, Integer> frequencies = new HashMap<>();
+        final List<String> scoredTerms = ontologySearcher.getKeywordsFromString(title + description);
+        scoredTerms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        final List<TermLiteral> literals = new ArrayList<>();
+        for (Statement statement : model.filter(entity, null, null)) {
+            if (statement.getObject().isLiteral()) {
+                final String value = statement.getObject().stringValue();
+                literals.add(new TermLiteral(
+                        new SearchResultRelation(statement.getPredicate().stringValue(), value),
+                        new HashSet<>(ontologySearcher.getKeywordsFromString(value))
+                ));
+            }
+        }
+        return new TermVector(types, title, description, frequencies, scoredTerms.size(), literals);
+    }
+
+    private static void removeFrom(Map<String, Set<DocumentKey>> index, String name, DocumentKey key) {
+        final Set<DocumentKey> keys = index.get(name);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            index.remove(name);
+        }
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class DocumentKey {
+
+        private final String graph;
+
+        private final String entity;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class TermVector {
+
+        private final List<String> types;
+
+        private final String title;
+
+        private final String description;
+
+        private final Map<String, Integer> frequencies;
+
+        private final int length;
+
+        private final List<TermLiteral> literals;
+
+        /**
+         * Terms of any literal, a record is found by all of them.
+         */
+        Set<String> getTerms() {
+            final Set<String> terms = new HashSet<>();
+            literals.forEach(literal -> terms.addAll(literal.getTerms()));
+            return terms;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class TermLiteral {
+
+        private final SearchResultRelation relation;
+
+        private final Set<String> terms;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.entity.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Children of a metadata record for one relation, ordered by title (and URI for equal titles).
+ * Published children are kept in a separate list, so that both views can be paged by offset
+ * or by cursor without scanning all children. The index is immutable, changes of single
+ * children produce an updated copy without loading all children again.
+ */
+public class MetadataChildIndex {
+
+    private final List<MetadataChildIndexEntry> children;
+
+    private final List<MetadataChildIndexEntry> publishedChildren;
+
+    public MetadataChildIndex(
+            List<MetadataChildIndexEntry> children, List<MetadataChildIndexEntry> publishedChildren
+    ) {
+        this.children = List.copyOf(children);
+        this.publishedChildren = List.copyOf(publishedChildren);
+    }
+
+    public int count(boolean publishedOnly) {
+        return entries(publishedOnly).size();
+    }
+
+    public List<MetadataChildIndexEntry> getPage(boolean publishedOnly, int page, int size) {
+        final List<MetadataChildIndexEntry> entries = entries(publishedOnly);
+        final long from = (long) page * size;
+        if (page < 0 || size <= 0 || from >= entries.size()) {
+            return Collections.emptyList();
+        }
+        return entries.subList((int) from, (int) Math.min(entries.size(), from + size));
+    }
+
+    public List<MetadataChildIndexEntry> getPageAfter(
+            boolean publishedOnly, MetadataChildIndexEntry cursor, int size
+    ) {
+        final List<MetadataChildIndexEntry> entries = entries(publishedOnly);
+        // Position right after the cursor, even if the cursor entry itself is gone
+        final int position = Collections.binarySearch(entries, cursor);
+        final int from = position >= 0 ? position + 1 : -position - 1;
+        if (size <= 0 || from >= entries.size()) {
+            return Collections.emptyList();
+        }
+        return entries.subList(from, Math.min(entries.size(), from + size));
+    }
+
+    public boolean hasAfter(boolean publishedOnly, MetadataChildIndexEntry entry) {
+        final List<MetadataChildIndexEntry> entries = entries(publishedOnly);
+        return !entries.isEmpty() && entries.get(entries.size() - 1).compareTo(entry) > 0;
+    }
+
+    /**
+     * Index with the child inserted at its position, replacing an entry of the same child
+     * (e.g. with a previous title).
+     */
+    public MetadataChildIndex withChild(MetadataChildIndexEntry child, boolean published) {
+        final MetadataChildIndex index = withoutChild(child.getUri());
+        return new MetadataChildIndex(
+                insert(index.children, child),
+                published ? insert(index.publishedChildren, child) : index.publishedChildren
+        );
+    }
+
+    public MetadataChildIndex withoutChild(String uri) {
+        return new MetadataChildIndex(remove(children, uri), remove(publishedChildren, uri));
+    }
+
+    public MetadataChildIndex withPublished(String uri, boolean published) {
+        final Optional<MetadataChildIndexEntry> child = children
+                .stream()
+                .filter(entry -> entry.getUri().equals(uri))
+                .findFirst();
+        if (child.isEmpty()) {
+            return this;
+        }
+        final List<MetadataChildIndexEntry> otherPublished = remove(publishedChildren, uri);
+        return new MetadataChildIndex(
+                children,
+                published ? insert(otherPublished, child.get()) : otherPublished
+        );
+    }
+
+    private static List<MetadataChildIndexEntry> insert(
+            List<MetadataChildIndexEntry> entries, MetadataChildIndexEntry entry
+    ) {
+        final int position = Collections.binarySearch(entries, entry);
+        if (position >= 0) {
+            return entries;
+        }
+        final List<MetadataChildIndexEntry> result = new ArrayList<>(entries);
+        result.add(-position - 1, entry);
+        return result;
+    }
+
+    private static List<MetadataChildIndexEntry> remove(List<MetadataChildIndexEntry> entries, String uri) {
+        return entries
+                .stream()
+                .filter(entry -> !entry.getUri().equals(uri))
+                .toList();
+    }
+
+    private List<MetadataChildIndexEntry> entries(boolean publishedOnly) {
+        return publishedOnly ? publishedChildren : children;
+    }
+}
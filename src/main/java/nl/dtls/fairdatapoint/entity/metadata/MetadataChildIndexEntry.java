@@ -0,0 +1,79 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.entity.metadata;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import nl.dtls.fairdatapoint.entity.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+
+import static java.lang.String.format;
+
+@AllArgsConstructor
+@EqualsAndHashCode
+@Getter
+public class MetadataChildIndexEntry implements Comparable<MetadataChildIndexEntry> {
+
+    private static final Comparator<MetadataChildIndexEntry> ORDER = Comparator
+            .comparing(MetadataChildIndexEntry::getTitle)
+            .thenComparing(MetadataChildIndexEntry::getUri);
+
+    private static final String CURSOR_SEPARATOR = "\n";
+
+    private static final String MSG_INVALID_CURSOR = "Invalid cursor '%s'";
+
+    private final String uri;
+
+    private final String title;
+
+    public static MetadataChildIndexEntry fromCursor(String cursor) {
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final int separator = decoded.indexOf(CURSOR_SEPARATOR);
+            if (separator < 0) {
+                throw new ValidationException(format(MSG_INVALID_CURSOR, cursor));
+            }
+            return new MetadataChildIndexEntry(
+                    decoded.substring(0, separator),
+                    decoded.substring(separator + CURSOR_SEPARATOR.length())
+            );
+        }
+        catch (IllegalArgumentException exception) {
+            throw new ValidationException(format(MSG_INVALID_CURSOR, cursor));
+        }
+    }
+
+    public String toCursor() {
+        final String raw = uri + CURSOR_SEPARATOR + title;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int compareTo(MetadataChildIndexEntry other) {
+        return ORDER.compare(this, other);
+    }
+}
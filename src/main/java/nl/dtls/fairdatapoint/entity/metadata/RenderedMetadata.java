@@ -0,0 +1,85 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.entity.metadata;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.rio.RDFFormat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+public class RenderedMetadata extends LinkedHashModel {
+
+    // Rough heap cost of a statement and its value objects, excluding the characters
+    private static final long STATEMENT_OVERHEAD = 128;
+
+    private final transient Map<RDFFormat, byte[]> renderings = new ConcurrentHashMap<>();
+
+    private final transient LongConsumer renderingListener;
+
+    public RenderedMetadata(Model model) {
+        this(model, bytes -> { });
+    }
+
+    /**
+     * The listener is notified of the size of every new serialization.
+     */
+    public RenderedMetadata(Model model, LongConsumer renderingListener) {
+        super(model);
+        this.renderingListener = renderingListener;
+    }
+
+    public byte[] getRendering(RDFFormat format, Function<Model, byte[]> renderer) {
+        final byte[] existing = renderings.get(format);
+        if (existing != null) {
+            return existing;
+        }
+        final byte[] rendering = renderer.apply(this);
+        if (renderings.putIfAbsent(format, rendering) == null) {
+            renderingListener.accept(rendering.length);
+            return rendering;
+        }
+        return renderings.get(format);
+    }
+
+    /**
+     * Estimated heap size of the statements in bytes (serializations not included).
+     */
+    public long estimateModelSize() {
+        long size = 0;
+        for (Statement statement : this) {
+            final Resource context = statement.getContext();
+            size += STATEMENT_OVERHEAD
+                    + 2L * (statement.getSubject().stringValue().length()
+                    + statement.getPredicate().stringValue().length()
+                    + statement.getObject().stringValue().length()
+                    + (context == null ? 0 : context.stringValue().length()));
+        }
+        return size;
+    }
+}
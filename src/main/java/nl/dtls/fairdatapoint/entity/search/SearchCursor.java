@@ -0,0 +1,81 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.entity.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import nl.dtls.fairdatapoint.entity.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static java.lang.String.format;
+
+/**
+ * Position of the last returned search result: its score and URI for ranked
+ * results, or the number of rows already returned for SPARQL queries.
+ */
+@AllArgsConstructor
+@Getter
+public class SearchCursor {
+
+    private static final String CURSOR_SEPARATOR = "\n";
+
+    private static final int CURSOR_PARTS = 3;
+
+    private static final String MSG_INVALID_CURSOR = "Invalid cursor '%s'";
+
+    private final double score;
+
+    private final String uri;
+
+    private final long offset;
+
+    public static SearchCursor fromCursor(String cursor) {
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final String[] parts = decoded.split(CURSOR_SEPARATOR, CURSOR_PARTS);
+            if (parts.length != CURSOR_PARTS) {
+                throw new ValidationException(format(MSG_INVALID_CURSOR, cursor));
+            }
+            return new SearchCursor(Double.parseDouble(parts[0]), parts[2], Long.parseLong(parts[1]));
+        }
+        catch (IllegalArgumentException exception) {
+            throw new ValidationException(format(MSG_INVALID_CURSOR, cursor));
+        }
+    }
+
+    public String toCursor() {
+        final String raw = String.join(CURSOR_SEPARATOR, Double.toString(score), Long.toString(offset), uri);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Whether a result with the given score and URI comes after this cursor
+     * (higher scores first, then ordered by URI).
+     */
+    public boolean isBefore(double otherScore, String otherUri) {
+        final int byScore = Double.compare(otherScore, score);
+        return byScore < 0 || byScore == 0 && otherUri.compareTo(uri) > 0;
+    }
+}
@@ -22,18 +22,97 @@
  */
 package nl.dtls.fairdatapoint.entity.search;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
+import java.util.*;
+import java.util.function.ToIntFunction;
 
-import java.util.List;
-
-@NoArgsConstructor
-@AllArgsConstructor
-@Getter
-@Setter
+/**
+ * Values of a search filter predicate with the records (named graphs, by ordinal)
+ * having each of them, updated per record from the difference of its values.
+ */
 public class SearchFilterCacheContainer {
 
-    private List<SearchFilterValue> values;
+    private final Map<String, SearchFilterValue> values = new LinkedHashMap<>();
+
+    private final Map<String, BitSet> recordsByValue = new HashMap<>();
+
+    private final Map<String, Set<String>> valuesByGraph = new HashMap<>();
+
+    public SearchFilterCacheContainer(
+            Map<String, List<SearchFilterValue>> graphValues, ToIntFunction<String> recordOrdinals
+    ) {
+        graphValues.forEach((graph, values) -> updateGraph(graph, recordOrdinals.applyAsInt(graph), values));
+    }
+
+    /**
+     * Copies of the values, the cached values are only changed under the lock of the container.
+     */
+    public synchronized List<SearchFilterValue> getValues() {
+        return values
+                .values()
+                .stream()
+                .map(value -> new SearchFilterValue(value.getValue(), value.getLabel(), value.getCount()))
+                .toList();
+    }
+
+    public synchronized void setLabel(String value, String label) {
+        final SearchFilterValue filterValue = values.get(value);
+        if (filterValue != null && filterValue.getLabel() == null) {
+            filterValue.setLabel(label);
+        }
+    }
+
+    /**
+     * Number of the given records (by ordinal) having each value, values of none of
+     * them are left out.
+     */
+    public synchronized Map<String, Long> countValues(BitSet records) {
+        final Map<String, Long> counts = new HashMap<>();
+        recordsByValue.forEach((value, valueRecords) -> {
+            if (valueRecords.intersects(records)) {
+                final BitSet matching = (BitSet) valueRecords.clone();
+                matching.and(records);
+                counts.put(value, (long) matching.cardinality());
+            }
+        });
+        return counts;
+    }
+
+    public synchronized void updateGraph(String graph, int ordinal, List<SearchFilterValue> graphValues) {
+        final Set<String> previous = valuesByGraph.getOrDefault(graph, Collections.emptySet());
+        final Set<String> current = new HashSet<>();
+        for (SearchFilterValue graphValue : graphValues) {
+            if (!current.add(graphValue.getValue()) || previous.contains(graphValue.getValue())) {
+                continue;
+            }
+            recordsByValue.computeIfAbsent(graphValue.getValue(), key -> new BitSet()).set(ordinal);
+            final SearchFilterValue value = values.get(graphValue.getValue());
+            if (value == null) {
+                values.put(graphValue.getValue(),
+                        new SearchFilterValue(graphValue.getValue(), graphValue.getLabel(), 1));
+            }
+            else {
+                value.setCount(value.getCount() + 1);
+                if (value.getLabel() == null) {
+                    value.setLabel(graphValue.getLabel());
+                }
+            }
+        }
+        for (String removed : previous) {
+            if (!current.contains(removed)) {
+                recordsByValue.get(removed).clear(ordinal);
+                final SearchFilterValue value = values.get(removed);
+                value.setCount(value.getCount() - 1);
+                if (value.getCount() == 0) {
+                    values.remove(removed);
+                    recordsByValue.remove(removed);
+                }
+            }
+        }
+        if (current.isEmpty()) {
+            valuesByGraph.remove(graph);
+        }
+        else {
+            valuesByGraph.put(graph, current);
+        }
+    }
 }
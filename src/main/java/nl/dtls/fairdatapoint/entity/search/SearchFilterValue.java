@@ -36,4 +36,13 @@ public class SearchFilterValue {
     private String value;
 
     private String label;
+
+    /**
+     * Number of metadata records having this value
+     */
+    private long count;
+
+    public SearchFilterValue(String value, String label) {
+        this(value, label, 0);
+    }
 }
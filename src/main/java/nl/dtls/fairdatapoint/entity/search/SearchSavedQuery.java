@@ -51,6 +51,8 @@ public class SearchSavedQuery {
 
     private SearchSavedQueryType type;
 
+    private boolean materialized;
+
     private Instant createdAt;
 
     private Instant updatedAt;
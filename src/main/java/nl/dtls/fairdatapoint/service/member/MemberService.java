@@ -31,6 +31,7 @@ import nl.dtls.fairdatapoint.entity.membership.MembershipPermission;
 import nl.dtls.fairdatapoint.entity.user.User;
 import nl.dtls.fairdatapoint.entity.user.UserRole;
 import nl.dtls.fairdatapoint.service.membership.PermissionService;
+import nl.dtls.fairdatapoint.service.metadata.version.MetadataVersionCache;
 import nl.dtls.fairdatapoint.service.user.CurrentUserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -74,6 +75,9 @@ public class MemberService {
     @Autowired
     private AclCache aclCache;
 
+    @Autowired
+    private MetadataVersionCache metadataVersionCache;
+
     @PreAuthorize("hasPermission(#entityId, #entityType.getName(), 'WRITE') or hasRole('ADMIN')")
     public <T> List<MemberDTO> getMembers(String entityId, Class<T> entityType) {
         final MutableAcl acl = retrieveAcl(entityId, entityType);
@@ -144,6 +148,7 @@ public class MemberService {
 
         // Update database
         aclService.updateAcl(acl);
+        metadataVersionCache.updateStateVersion();
 
         return memberMapper.toDTO(user, membership);
     }
@@ -165,6 +170,7 @@ public class MemberService {
                 .isEmpty()) {
             insertAce(acl, userUuid, permission);
             aclService.updateAcl(acl);
+            metadataVersionCache.updateStateVersion();
         }
     }
 
@@ -204,6 +210,7 @@ public class MemberService {
             aclRepository.save(acl);
         }
         aclCache.clearCache();
+        metadataVersionCache.updateStateVersion();
     }
 
     @PreAuthorize("hasPermission(#entityId, #entityType.getName(), 'WRITE') or hasRole('ADMIN')")
@@ -218,6 +225,7 @@ public class MemberService {
             }
         }
         aclService.updateAcl(acl);
+        metadataVersionCache.updateStateVersion();
     }
 
     private Membership deriveMembership(List<Permission> permissions) {
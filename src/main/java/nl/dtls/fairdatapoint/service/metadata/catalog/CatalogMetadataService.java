@@ -30,6 +30,7 @@ import nl.dtls.fairdatapoint.service.metadata.common.AbstractMetadataService;
 import nl.dtls.fairdatapoint.service.metadata.exception.MetadataServiceException;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
@@ -48,8 +49,8 @@ public class CatalogMetadataService extends AbstractMetadataService {
     private CatalogMetadataRepository metadataRepository;
 
     @Override
-    public Model retrieve(@Nonnull IRI uri) throws MetadataServiceException {
-        final Model catalog = super.retrieve(uri);
+    protected Model toModel(@Nonnull IRI uri, List<Statement> statements) throws MetadataServiceException {
+        final Model catalog = super.toModel(uri, statements);
         try {
             final List<IRI> themes = metadataRepository.getDatasetThemesForCatalog(uri);
             setThemeTaxonomies(catalog, uri, themes);
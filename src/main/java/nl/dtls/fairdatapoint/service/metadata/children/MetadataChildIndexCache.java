@@ -0,0 +1,177 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.metadata.children;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
+import nl.dtls.fairdatapoint.database.rdf.repository.generic.GenericMetadataRepository;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataChildIndex;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataChildIndexEntry;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataState;
+import nl.dtls.fairdatapoint.service.metadata.state.MetadataStateCache;
+import org.eclipse.rdf4j.model.IRI;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import static java.lang.String.format;
+
+/**
+ * Keeps title-ordered children per (parent, relation, child URL prefix), so that pages of
+ * children can be served without fetching and sorting all of them on every request.
+ * Indexes are grouped by parent: a created, retitled, deleted or (un)published child
+ * updates the indexes of its parent in place instead of evicting them.
+ */
+@Service
+public class MetadataChildIndexCache {
+
+    private static final String KEY_SEPARATOR = "|";
+
+    @Autowired
+    private GenericMetadataRepository metadataRepository;
+
+    @Autowired
+    private MetadataStateCache metadataStateCache;
+
+    private final Map<String, Map<String, ChildIndex>> indexes = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public MetadataChildIndex get(
+            IRI parent, IRI relation, String childPrefix, Predicate<String> childFilter
+    ) throws MetadataRepositoryException {
+        final String key = format("%s%s%s", relation, KEY_SEPARATOR, childPrefix);
+        final Map<String, ChildIndex> parentIndexes = indexes.get(parent.stringValue());
+        final ChildIndex cached = parentIndexes == null ? null : parentIndexes.get(key);
+        if (cached != null) {
+            return cached.getIndex();
+        }
+
+        // Do not keep an index built concurrently with a change
+        final long loadGeneration = generation.get();
+        final MetadataChildIndex childIndex = load(parent, relation, childFilter);
+        indexes.compute(parent.stringValue(), (uri, current) -> {
+            if (loadGeneration != generation.get()) {
+                return current;
+            }
+            final Map<String, ChildIndex> updated = current == null ? new HashMap<>() : new HashMap<>(current);
+            updated.put(key, new ChildIndex(relation.stringValue(), childFilter, childIndex));
+            return updated;
+        });
+        return childIndex;
+    }
+
+    /**
+     * Insert a child into the indexes of its parent for the relation, or update its title.
+     */
+    public void putChild(IRI parent, IRI relation, IRI child, String title) {
+        final String childUri = child.stringValue();
+        final MetadataChildIndexEntry entry = new MetadataChildIndexEntry(childUri, title);
+        final boolean published = isPublished(childUri);
+        update(parent, childIndex -> {
+            if (!childIndex.getRelation().equals(relation.stringValue())
+                    || !childIndex.getChildFilter().test(childUri)) {
+                return childIndex;
+            }
+            return childIndex.withIndex(childIndex.getIndex().withChild(entry, published));
+        });
+    }
+
+    public void removeChild(IRI parent, IRI child) {
+        update(parent, childIndex -> childIndex.withIndex(childIndex.getIndex().withoutChild(child.stringValue())));
+    }
+
+    public void updateState(IRI parent, IRI child) {
+        final boolean published = isPublished(child.stringValue());
+        update(parent, childIndex -> childIndex.withIndex(
+                childIndex.getIndex().withPublished(child.stringValue(), published)
+        ));
+    }
+
+    public void evict(IRI parent) {
+        generation.incrementAndGet();
+        indexes.remove(parent.stringValue());
+    }
+
+    public void clearCache() {
+        generation.incrementAndGet();
+        indexes.clear();
+    }
+
+    private void update(IRI parent, UnaryOperator<ChildIndex> change) {
+        generation.incrementAndGet();
+        indexes.computeIfPresent(parent.stringValue(), (uri, current) -> {
+            final Map<String, ChildIndex> updated = new HashMap<>();
+            current.forEach((key, childIndex) -> updated.put(key, change.apply(childIndex)));
+            return updated;
+        });
+    }
+
+    private boolean isPublished(String uri) {
+        return MetadataState.PUBLISHED.equals(metadataStateCache.getStates(List.of(uri)).get(uri));
+    }
+
+    private MetadataChildIndex load(
+            IRI parent, IRI relation, Predicate<String> childFilter
+    ) throws MetadataRepositoryException {
+        final List<MetadataChildIndexEntry> children = metadataRepository
+                .findChildTitles(parent, relation)
+                .entrySet()
+                .stream()
+                .filter(entry -> childFilter.test(entry.getKey()))
+                .map(entry -> new MetadataChildIndexEntry(entry.getKey(), entry.getValue()))
+                .sorted()
+                .toList();
+        final Map<String, MetadataState> states = metadataStateCache.getStates(
+                children.stream().map(MetadataChildIndexEntry::getUri).toList()
+        );
+        final List<MetadataChildIndexEntry> publishedChildren = children
+                .stream()
+                .filter(child -> MetadataState.PUBLISHED.equals(states.get(child.getUri())))
+                .toList();
+        return new MetadataChildIndex(children, publishedChildren);
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static final class ChildIndex {
+
+        private final String relation;
+
+        private final Predicate<String> childFilter;
+
+        private final MetadataChildIndex index;
+
+        private ChildIndex withIndex(MetadataChildIndex updatedIndex) {
+            return new ChildIndex(relation, childFilter, updatedIndex);
+        }
+    }
+}
@@ -24,7 +24,9 @@ package nl.dtls.fairdatapoint.service.metadata.common;
 
 import lombok.extern.slf4j.Slf4j;
 import nl.dtls.fairdatapoint.database.rdf.repository.common.MetadataRepository;
+import nl.dtls.fairdatapoint.database.rdf.repository.common.MetadataUnitOfWork;
 import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
+import nl.dtls.fairdatapoint.database.search.MetadataSearchIndex;
 import nl.dtls.fairdatapoint.entity.exception.ResourceNotFoundException;
 import nl.dtls.fairdatapoint.entity.metadata.Metadata;
 import nl.dtls.fairdatapoint.entity.metadata.MetadataGetter;
@@ -34,10 +36,16 @@ import nl.dtls.fairdatapoint.entity.user.User;
 import nl.dtls.fairdatapoint.service.member.MemberService;
 import nl.dtls.fairdatapoint.service.metadata.enhance.MetadataEnhancer;
 import nl.dtls.fairdatapoint.service.metadata.exception.MetadataServiceException;
+import nl.dtls.fairdatapoint.service.metadata.children.MetadataChildIndexCache;
+import nl.dtls.fairdatapoint.service.metadata.count.MetadataCountCache;
+import nl.dtls.fairdatapoint.service.metadata.path.MetadataPathCache;
+import nl.dtls.fairdatapoint.service.metadata.render.MetadataRenderCache;
 import nl.dtls.fairdatapoint.service.metadata.state.MetadataStateService;
 import nl.dtls.fairdatapoint.service.metadata.validator.MetadataValidator;
+import nl.dtls.fairdatapoint.service.metadata.version.MetadataVersionCache;
 import nl.dtls.fairdatapoint.service.resource.ResourceDefinitionCache;
 import nl.dtls.fairdatapoint.service.resource.ResourceDefinitionService;
+import nl.dtls.fairdatapoint.service.search.SearchFilterCache;
 import nl.dtls.fairdatapoint.service.user.CurrentUserService;
 import nl.dtls.fairdatapoint.vocabulary.FDP;
 import org.eclipse.rdf4j.model.IRI;
@@ -55,7 +63,7 @@ import java.util.stream.Collectors;
 import static java.lang.String.format;
 import static nl.dtls.fairdatapoint.entity.metadata.MetadataGetter.getChildren;
 import static nl.dtls.fairdatapoint.entity.metadata.MetadataGetter.getParent;
-import static nl.dtls.fairdatapoint.util.ThrowingFunction.suppress;
+import static nl.dtls.fairdatapoint.entity.metadata.MetadataGetter.getTitle;
 import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.*;
 
 @Slf4j
@@ -86,6 +94,33 @@ public abstract class AbstractMetadataService implements MetadataService {
     @Autowired
     private ResourceDefinitionService resourceDefinitionService;
 
+    @Autowired
+    private MetadataVersionCache metadataVersionCache;
+
+    @Autowired
+    private MetadataRenderCache metadataRenderCache;
+
+    @Autowired
+    private MetadataChildIndexCache metadataChildIndexCache;
+
+    @Autowired
+    private MetadataPathCache metadataPathCache;
+
+    @Autowired
+    private MetadataUnitOfWork metadataUnitOfWork;
+
+    @Autowired
+    private MetadataCountCache metadataCountCache;
+
+    @Autowired
+    private MetadataSearchIndex metadataSearchIndex;
+
+    @Autowired
+    private SearchFilterCache searchFilterCache;
+
+    @Autowired
+    private MetadataWriteEpoch metadataWriteEpoch;
+
     @Override
     public Model retrieve(IRI uri) throws MetadataServiceException, ResourceNotFoundException {
         try {
@@ -98,9 +133,7 @@ public abstract class AbstractMetadataService implements MetadataService {
             }
 
             // 2. Convert to model
-            final Model metadata = new LinkedHashModel();
-            metadata.addAll(statements);
-            return metadata;
+            return toModel(uri, statements);
         }
         catch (MetadataRepositoryException exception) {
             throw new MetadataServiceException(exception.getMessage());
@@ -108,30 +141,52 @@ public abstract class AbstractMetadataService implements MetadataService {
     }
 
     @Override
-    public List<Model> retrieve(List<IRI> uris) {
-        return uris
-                .stream()
-                .map(suppress(this::retrieve))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    public List<Model> retrieve(List<IRI> uris) throws MetadataServiceException {
+        try {
+            // 1. Get metadata of all records at once
+            final Map<IRI, List<Statement>> graphs = metadataRepository.find(uris);
+
+            // 2. Convert to models (in requested order, skipping missing records)
+            final List<Model> result = new ArrayList<>(uris.size());
+            for (IRI uri : uris) {
+                final List<Statement> statements = graphs.get(uri);
+                if (statements != null && !statements.isEmpty()) {
+                    result.add(toModel(uri, statements));
+                }
+            }
+            return result;
+        }
+        catch (MetadataRepositoryException exception) {
+            throw new MetadataServiceException(exception.getMessage());
+        }
+    }
+
+    protected Model toModel(IRI uri, List<Statement> statements) throws MetadataServiceException {
+        final Model metadata = new LinkedHashModel();
+        metadata.addAll(statements);
+        return metadata;
     }
 
     @Override
     public Model store(
             Model metadata, IRI uri, ResourceDefinition resourceDefinition
     ) throws MetadataServiceException {
-        try {
-            metadataValidator.validate(metadata, uri, resourceDefinition);
-            metadataEnhancer.enhance(metadata, uri, resourceDefinition);
-            metadataRepository.save(new ArrayList<>(metadata), uri);
-            updateParent(metadata, uri, resourceDefinition);
-            addPermissions(uri);
-            addState(uri);
-            return metadata;
-        }
-        catch (MetadataRepositoryException exception) {
-            throw new MetadataServiceException(exception.getMessage());
-        }
+        return metadataUnitOfWork.execute(() -> {
+            try {
+                metadataValidator.validate(metadata, uri, resourceDefinition);
+                metadataEnhancer.enhance(metadata, uri, resourceDefinition);
+                metadataRepository.save(new ArrayList<>(metadata), uri);
+                evictCaches(uri);
+                metadataUnitOfWork.afterCommit(() -> metadataCountCache.increment(resourceDefinition));
+                updateParent(metadata, uri, resourceDefinition);
+                addPermissions(uri);
+                addState(uri);
+                return metadata;
+            }
+            catch (MetadataRepositoryException exception) {
+                throw new MetadataServiceException(exception.getMessage());
+            }
+        });
     }
 
     @Override
@@ -143,23 +198,34 @@ public abstract class AbstractMetadataService implements MetadataService {
     public Model update(
             Model metadata, IRI uri, ResourceDefinition resourceDefinition
     ) throws MetadataServiceException {
-        try {
-            metadataValidator.validate(metadata, uri, resourceDefinition);
-            final Model oldMetadata = retrieve(uri);
-            metadataEnhancer.enhance(metadata, uri, resourceDefinition, oldMetadata);
-            metadataRepository.remove(uri);
-            metadataRepository.save(new ArrayList<>(metadata), uri);
-            updateParent(metadata, uri, resourceDefinition);
-            return metadata;
-        }
-        catch (MetadataRepositoryException | MetadataServiceException exception) {
-            throw new MetadataServiceException(exception.getMessage());
-        }
+        return metadataUnitOfWork.execute(() -> {
+            try {
+                metadataValidator.validate(metadata, uri, resourceDefinition);
+                final Model oldMetadata = retrieve(uri);
+                metadataEnhancer.enhance(metadata, uri, resourceDefinition, oldMetadata);
+                metadataRepository.remove(uri);
+                metadataRepository.save(new ArrayList<>(metadata), uri);
+                evictCaches(uri);
+                updateChildIndex(uri, oldMetadata, metadata);
+                updateParent(metadata, uri, resourceDefinition);
+                return metadata;
+            }
+            catch (MetadataRepositoryException | MetadataServiceException exception) {
+                throw new MetadataServiceException(exception.getMessage());
+            }
+        });
     }
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
     public void delete(IRI uri, ResourceDefinition rd) throws MetadataServiceException {
+        metadataUnitOfWork.execute(() -> {
+            deleteWithChildren(uri, rd);
+            return null;
+        });
+    }
+
+    private void deleteWithChildren(IRI uri, ResourceDefinition rd) throws MetadataServiceException {
         try {
             final Model metadata = retrieve(uri);
 
@@ -170,7 +236,7 @@ public abstract class AbstractMetadataService implements MetadataService {
                 if (rdChild != null) {
                     final List<IRI> children = getChildren(metadata, i(child.getRelationUri()));
                     for (IRI childUri : children) {
-                        delete(childUri, rdChild);
+                        deleteWithChildren(childUri, rdChild);
                     }
                 }
             }
@@ -192,6 +258,9 @@ public abstract class AbstractMetadataService implements MetadataService {
 
             // Delete itself
             metadataRepository.remove(uri);
+            evictCaches(uri);
+            metadataUnitOfWork.afterCompletion(() -> metadataChildIndexCache.evict(uri));
+            metadataUnitOfWork.afterCommit(() -> metadataCountCache.decrement(rd));
         }
         catch (MetadataRepositoryException | MetadataServiceException exception) {
             throw new MetadataServiceException(exception.getMessage());
@@ -207,16 +276,22 @@ public abstract class AbstractMetadataService implements MetadataService {
                     resourceDefinitionService.getByUrl(parent.toString());
             if (rdParent != null) {
                 try {
+                    final String title = getTitle(metadata).stringValue();
                     final List<Statement> statements = new ArrayList<>();
                     for (ResourceDefinitionChild rdChild : rdParent.getChildren()) {
                         if (rdChild.getResourceDefinitionUuid()
                                 .equals(resourceDefinition.getUuid())) {
-                            statements.add(s(parent, i(rdChild.getRelationUri()), uri));
+                            final IRI relation = i(rdChild.getRelationUri());
+                            statements.add(s(parent, relation, uri));
+                            // Insert (or retitle) the child in the child index of the parent
+                            metadataUnitOfWork.afterCommit(() ->
+                                    metadataChildIndexCache.putChild(parent, relation, uri, title));
                         }
                     }
                     metadataRepository.removeStatement(parent, FDP.METADATAMODIFIED, null, parent);
                     statements.add(s(parent, FDP.METADATAMODIFIED, l(OffsetDateTime.now())));
                     metadataRepository.save(statements, parent);
+                    evictCaches(parent);
                 }
                 catch (MetadataRepositoryException exception) {
                     throw new MetadataServiceException("Problem with updating parent timestamp");
@@ -227,6 +302,47 @@ public abstract class AbstractMetadataService implements MetadataService {
         }
     }
 
+    /**
+     * Remove children no longer linked from the child index, an index with newly linked
+     * children is loaded again (their titles are not known here).
+     */
+    private void updateChildIndex(IRI uri, Model oldMetadata, Model metadata) {
+        final Set<Statement> oldLinks = getLinks(uri, oldMetadata);
+        final Set<Statement> links = getLinks(uri, metadata);
+        for (Statement link : oldLinks) {
+            if (!links.contains(link)) {
+                metadataUnitOfWork.afterCommit(() ->
+                        metadataChildIndexCache.removeChild(uri, (IRI) link.getObject()));
+            }
+        }
+        if (!oldLinks.containsAll(links)) {
+            metadataUnitOfWork.afterCompletion(() -> metadataChildIndexCache.evict(uri));
+        }
+    }
+
+    private Set<Statement> getLinks(IRI uri, Model metadata) {
+        return metadata
+                .filter(uri, null, null)
+                .stream()
+                .filter(statement -> statement.getObject().isIRI())
+                .map(statement -> s(uri, statement.getPredicate(), statement.getObject()))
+                .collect(Collectors.toSet());
+    }
+
+    private void evictCaches(IRI uri) {
+        // Readers keep seeing the cached committed state until the unit of work completes
+        metadataUnitOfWork.afterCompletion(() -> {
+            metadataVersionCache.evict(uri);
+            metadataRenderCache.evict(uri);
+            metadataPathCache.evict(uri);
+        });
+        metadataUnitOfWork.afterCommit(() -> {
+            metadataSearchIndex.update(uri);
+            searchFilterCache.update(uri);
+            metadataWriteEpoch.bump();
+        });
+    }
+
     private void addPermissions(IRI uri) {
         final Optional<User> user = currentUserService.getCurrentUser();
         if (user.isEmpty()) {
@@ -0,0 +1,82 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.metadata.common;
+
+import nl.dtls.fairdatapoint.database.rdf.repository.common.MetadataGraphCache;
+import nl.dtls.fairdatapoint.service.metadata.children.MetadataChildIndexCache;
+import nl.dtls.fairdatapoint.service.metadata.count.MetadataCountCache;
+import nl.dtls.fairdatapoint.service.metadata.path.MetadataPathCache;
+import nl.dtls.fairdatapoint.service.metadata.render.MetadataRenderCache;
+import nl.dtls.fairdatapoint.service.metadata.state.MetadataStateCache;
+import nl.dtls.fairdatapoint.service.metadata.version.MetadataVersionCache;
+import nl.dtls.fairdatapoint.service.search.SearchFilterCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory caches derived from metadata records, invalidated together when records
+ * are changed in bulk (resets and migrations) instead of per record. The full-text
+ * index is persisted, so it is cleared or updated by the callers themselves.
+ */
+@Component
+public class MetadataCaches {
+
+    @Autowired
+    private MetadataGraphCache metadataGraphCache;
+
+    @Autowired
+    private MetadataVersionCache metadataVersionCache;
+
+    @Autowired
+    private MetadataRenderCache metadataRenderCache;
+
+    @Autowired
+    private MetadataChildIndexCache metadataChildIndexCache;
+
+    @Autowired
+    private MetadataPathCache metadataPathCache;
+
+    @Autowired
+    private MetadataStateCache metadataStateCache;
+
+    @Autowired
+    private MetadataCountCache metadataCountCache;
+
+    @Autowired
+    private SearchFilterCache searchFilterCache;
+
+    @Autowired
+    private MetadataWriteEpoch metadataWriteEpoch;
+
+    public void invalidateAll() {
+        metadataGraphCache.clearCache();
+        metadataVersionCache.evictAll();
+        metadataRenderCache.clearCache();
+        metadataChildIndexCache.clearCache();
+        metadataPathCache.clearCache();
+        metadataStateCache.clearCache();
+        metadataCountCache.invalidate();
+        searchFilterCache.clearCache();
+        metadataWriteEpoch.bump();
+    }
+}
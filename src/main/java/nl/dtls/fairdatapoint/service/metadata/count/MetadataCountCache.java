@@ -0,0 +1,146 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.metadata.count;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import nl.dtls.fairdatapoint.database.rdf.repository.common.MetadataRepository;
+import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataState;
+import nl.dtls.fairdatapoint.entity.resource.ResourceDefinition;
+import nl.dtls.fairdatapoint.service.metadata.common.MetadataWriteEpoch;
+import nl.dtls.fairdatapoint.service.metadata.state.MetadataStateCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Number of metadata records per resource definition (by URL prefix), maintained
+ * on store and delete and rebuilt with a single aggregate query when invalidated.
+ * Counts of published records only are computed from the publication states and
+ * kept until the next metadata change.
+ */
+@Service
+public class MetadataCountCache {
+
+    @Autowired
+    @Qualifier("genericMetadataRepository")
+    private MetadataRepository metadataRepository;
+
+    @Autowired
+    @Qualifier("persistentUrl")
+    private String persistentUrl;
+
+    @Autowired
+    private MetadataStateCache metadataStateCache;
+
+    @Autowired
+    private MetadataWriteEpoch metadataWriteEpoch;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    private volatile boolean valid;
+
+    private volatile PublishedCounts publishedCounts;
+
+    public Map<String, Long> getCounts() throws MetadataRepositoryException {
+        final Map<String, AtomicLong> current = valid ? counts : rebuild();
+        return current
+                .entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
+    }
+
+    public Map<String, Long> getPublishedCounts() throws MetadataRepositoryException {
+        final long epoch = metadataWriteEpoch.get();
+        final PublishedCounts current = publishedCounts;
+        if (current != null && current.getEpoch() == epoch) {
+            return current.getCounts();
+        }
+        final Map<String, String> urlPrefixes = metadataRepository.findEntityUrlPrefixes(persistentUrl + "/");
+        final Map<String, Long> counts = new HashMap<>();
+        metadataStateCache.getStates(urlPrefixes.keySet()).forEach((uri, state) -> {
+            if (state.equals(MetadataState.PUBLISHED)) {
+                counts.merge(urlPrefixes.get(uri), 1L, Long::sum);
+            }
+        });
+        // Counts computed while metadata changed are recomputed on the next request
+        publishedCounts = new PublishedCounts(epoch, Map.copyOf(counts));
+        return counts;
+    }
+
+    public long getTotal() throws MetadataRepositoryException {
+        return getCounts().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public void increment(ResourceDefinition resourceDefinition) {
+        update(resourceDefinition, 1);
+    }
+
+    public void decrement(ResourceDefinition resourceDefinition) {
+        update(resourceDefinition, -1);
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        valid = false;
+    }
+
+    private void update(ResourceDefinition resourceDefinition, long delta) {
+        generation.incrementAndGet();
+        if (valid) {
+            counts.computeIfAbsent(resourceDefinition.getUrlPrefix(), key -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    private synchronized Map<String, AtomicLong> rebuild() throws MetadataRepositoryException {
+        if (valid) {
+            return counts;
+        }
+        final long rebuildGeneration = generation.get();
+        final Map<String, AtomicLong> rebuilt = new ConcurrentHashMap<>();
+        metadataRepository.countEntitiesByUrlPrefix(persistentUrl + "/")
+                .forEach((urlPrefix, count) -> rebuilt.put(urlPrefix, new AtomicLong(count)));
+        counts = rebuilt;
+        // Changes made while counting may be missing, keep rebuilding until stable
+        valid = generation.get() == rebuildGeneration;
+        return rebuilt;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static final class PublishedCounts {
+
+        private final long epoch;
+
+        private final Map<String, Long> counts;
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.metadata.path;
+
+import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
+import nl.dtls.fairdatapoint.database.rdf.repository.generic.GenericMetadataRepository;
+import nl.dtls.fairdatapoint.entity.exception.ResourceNotFoundException;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataPath;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataPathEntry;
+import nl.dtls.fairdatapoint.entity.resource.ResourceDefinition;
+import nl.dtls.fairdatapoint.service.metadata.exception.MetadataServiceException;
+import nl.dtls.fairdatapoint.service.resource.ResourceDefinitionService;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static nl.dtls.fairdatapoint.entity.metadata.MetadataGetter.getTitle;
+import static nl.dtls.fairdatapoint.util.RdfUtil.getStringObjectBy;
+import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.i;
+
+/**
+ * Keeps materialized ancestor paths (URIs, titles and resource definitions) of metadata records,
+ * so that breadcrumbs do not need to walk dct:isPartOf in the triple store on every request.
+ * Paths are kept in least-recently-used order up to a maximum number, with a reverse index
+ * from every record to the cached paths containing it, so that a change evicts its subtree
+ * without scanning all paths.
+ */
+@Service
+public class MetadataPathCache {
+
+    private static final String MSG_NOT_FOUND = "No metadata found for the uri '%s'";
+
+    private static final String MSG_CYCLE = "Cyclic dct:isPartOf detected for '%s'";
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<String, MetadataPath> paths = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    private final Map<String, Set<String>> descendants = new HashMap<>();
+
+    @Value("${repository.cache.maxPaths:10000}")
+    private int maxPaths;
+
+    @Autowired
+    private GenericMetadataRepository metadataRepository;
+
+    @Autowired
+    private ResourceDefinitionService resourceDefinitionService;
+
+    private long generation;
+
+    public MetadataPath getPath(IRI uri) throws MetadataServiceException {
+        return getPath(uri, new HashSet<>());
+    }
+
+    public synchronized void evict(IRI uri) {
+        // Paths of all descendants contain the record as well
+        generation++;
+        final Set<String> containing = descendants.get(uri.stringValue());
+        if (containing != null) {
+            List.copyOf(containing).forEach(this::remove);
+        }
+    }
+
+    public synchronized void clearCache() {
+        generation++;
+        paths.clear();
+        descendants.clear();
+    }
+
+    private MetadataPath getPath(IRI uri, Set<String> visited) throws MetadataServiceException {
+        final MetadataPath cached = get(uri.stringValue());
+        if (cached != null) {
+            return cached;
+        }
+        if (!visited.add(uri.stringValue())) {
+            throw new MetadataServiceException(format(MSG_CYCLE, uri));
+        }
+
+        // Do not keep a path built concurrently with an eviction
+        final long loadGeneration = getGeneration();
+        final MetadataPathEntry entry = loadEntry(uri);
+        final List<MetadataPathEntry> entries = new ArrayList<>();
+        entries.add(entry);
+        if (entry.getParent() != null) {
+            entries.addAll(getPath(i(entry.getParent()), visited).getEntries());
+        }
+        final MetadataPath path = new MetadataPath(entries);
+        put(uri.stringValue(), path, loadGeneration);
+        return path;
+    }
+
+    private synchronized MetadataPath get(String uri) {
+        return paths.get(uri);
+    }
+
+    private synchronized long getGeneration() {
+        return generation;
+    }
+
+    private synchronized void put(String uri, MetadataPath path, long loadGeneration) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        remove(uri);
+        paths.put(uri, path);
+        path.getEntries().forEach(entry ->
+                descendants.computeIfAbsent(entry.getUri(), key -> new HashSet<>()).add(uri));
+        while (paths.size() > maxPaths) {
+            remove(paths.keySet().iterator().next());
+        }
+    }
+
+    private void remove(String uri) {
+        final MetadataPath path = paths.remove(uri);
+        if (path == null) {
+            return;
+        }
+        for (MetadataPathEntry entry : path.getEntries()) {
+            final Set<String> containing = descendants.get(entry.getUri());
+            if (containing != null) {
+                containing.remove(uri);
+                if (containing.isEmpty()) {
+                    descendants.remove(entry.getUri());
+                }
+            }
+        }
+    }
+
+    private MetadataPathEntry loadEntry(IRI uri) throws MetadataServiceException {
+        try {
+            final List<Statement> statements = metadataRepository.find(uri);
+            if (statements.isEmpty()) {
+                throw new ResourceNotFoundException(format(MSG_NOT_FOUND, uri));
+            }
+            final Model metadata = new LinkedHashModel(statements);
+            final Literal title = getTitle(metadata);
+            // Records outside of any resource definition (e.g. external parents) have no definition UUID
+            final ResourceDefinition definition = resourceDefinitionService.getByUrl(uri.stringValue());
+            return new MetadataPathEntry(
+                    uri.stringValue(),
+                    getStringObjectBy(metadata, uri, DCTERMS.IS_PART_OF),
+                    title == null ? null : title.stringValue(),
+                    definition == null ? null : definition.getUuid()
+            );
+        }
+        catch (MetadataRepositoryException exception) {
+            throw new MetadataServiceException(exception.getMessage());
+        }
+    }
+}
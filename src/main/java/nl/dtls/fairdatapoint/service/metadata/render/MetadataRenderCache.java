@@ -0,0 +1,186 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.metadata.render;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import nl.dtls.fairdatapoint.entity.metadata.RenderedMetadata;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.lang.String.format;
+
+/**
+ * Keeps the response models of metadata records (including their serializations per RDF format)
+ * for anonymous and authenticated views, so that repeated reads do not hit the triple store.
+ * Entries are kept in least-recently-used order and limited by their estimated total size in
+ * bytes, including the serializations rendered after an entry was cached.
+ */
+@Service
+public class MetadataRenderCache {
+
+    private static final String VIEW_ANONYMOUS = "anonymous";
+
+    private static final String VIEW_AUTHENTICATED = "authenticated";
+
+    private static final String METRIC_REQUESTS = "fdp.metadata.render.cache.requests";
+    private static final String METRIC_EVICTIONS = "fdp.metadata.render.cache.evictions";
+    private static final String METRIC_ENTRIES = "fdp.metadata.render.cache.entries";
+    private static final String METRIC_BYTES = "fdp.metadata.render.cache.bytes";
+    private static final String TAG_RESULT = "result";
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<String, Entry> entries =
+            new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${repository.cache.maxRenderedBytes:268435456}")
+    private long maxBytes;
+
+    private long byteCount;
+
+    private long generation;
+
+    private Counter hits;
+
+    private Counter misses;
+
+    private Counter evictions;
+
+    @PostConstruct
+    public void registerMetrics() {
+        hits = meterRegistry.counter(METRIC_REQUESTS, TAG_RESULT, "hit");
+        misses = meterRegistry.counter(METRIC_REQUESTS, TAG_RESULT, "miss");
+        evictions = meterRegistry.counter(METRIC_EVICTIONS);
+        Gauge.builder(METRIC_ENTRIES, this, MetadataRenderCache::getEntryCount).register(meterRegistry);
+        Gauge.builder(METRIC_BYTES, this, MetadataRenderCache::getByteCount).register(meterRegistry);
+    }
+
+    public synchronized Optional<RenderedMetadata> get(IRI uri, boolean authenticated) {
+        final Entry entry = entries.get(key(uri, authenticated));
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.getRenderedMetadata());
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized RenderedMetadata put(IRI uri, boolean authenticated, Model model, long loadGeneration) {
+        final String key = key(uri, authenticated);
+        final Entry entry = new Entry();
+        final RenderedMetadata renderedMetadata = new RenderedMetadata(model, bytes -> grow(key, entry, bytes));
+        entry.setRenderedMetadata(renderedMetadata);
+        entry.setSize(renderedMetadata.estimateModelSize());
+        // Do not keep a model built concurrently with an eviction
+        if (loadGeneration != generation || entry.getSize() > maxBytes) {
+            return renderedMetadata;
+        }
+        remove(key);
+        entries.put(key, entry);
+        byteCount += entry.getSize();
+        trim();
+        return renderedMetadata;
+    }
+
+    public synchronized void evict(IRI uri) {
+        generation++;
+        remove(key(uri, false));
+        remove(key(uri, true));
+    }
+
+    public synchronized void clearCache() {
+        generation++;
+        entries.clear();
+        byteCount = 0;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Account a serialization rendered for an entry, unless the entry is no longer cached.
+     */
+    private synchronized void grow(String key, Entry entry, long bytes) {
+        if (entries.get(key) != entry) {
+            return;
+        }
+        entry.setSize(entry.getSize() + bytes);
+        byteCount += bytes;
+        trim();
+    }
+
+    private void trim() {
+        final Iterator<Entry> eldest = entries.values().iterator();
+        while (byteCount > maxBytes && eldest.hasNext()) {
+            byteCount -= eldest.next().getSize();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        final Entry previous = entries.remove(key);
+        if (previous != null) {
+            byteCount -= previous.getSize();
+        }
+    }
+
+    private String key(IRI uri, boolean authenticated) {
+        return format("%s|%s", authenticated ? VIEW_AUTHENTICATED : VIEW_ANONYMOUS, uri.stringValue());
+    }
+
+    @Getter
+    @Setter
+    private static final class Entry {
+
+        private RenderedMetadata renderedMetadata;
+
+        private long size;
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.metadata.state;
+
+import nl.dtls.fairdatapoint.database.mongo.repository.MetadataRepository;
+import nl.dtls.fairdatapoint.entity.metadata.Metadata;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps publication states of metadata records in memory in least-recently-used order
+ * up to a maximum count. Records without a stored state (e.g. created before their state
+ * was initialized or left behind by a failed write) are resolved as drafts, so they are
+ * never exposed as published; such defaults are not kept in the cache.
+ */
+@Service
+public class MetadataStateCache {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<String, MetadataState> states =
+            new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MetadataState> eldest) {
+                    return size() > maxStates;
+                }
+            };
+
+    @Value("${repository.cache.maxStates:100000}")
+    private int maxStates;
+
+    @Autowired
+    private MetadataRepository metadataRepository;
+
+    private long generation;
+
+    public synchronized MetadataState get(String uri) {
+        return states.get(uri);
+    }
+
+    public Map<String, MetadataState> getStates(Collection<String> uris) {
+        // 1. Get known states from index
+        final Map<String, MetadataState> result = new HashMap<>();
+        final List<String> missingUris = new ArrayList<>();
+        for (String uri : uris) {
+            final MetadataState state = get(uri);
+            if (state == null) {
+                missingUris.add(uri);
+            }
+            else {
+                result.put(uri, state);
+            }
+        }
+
+        // 2. Resolve the rest with a single query
+        if (!missingUris.isEmpty()) {
+            final long loadGeneration = getGeneration();
+            for (Metadata metadata : metadataRepository.findByUriIn(missingUris)) {
+                result.put(metadata.getUri(), load(metadata.getUri(), metadata.getState(), loadGeneration));
+            }
+        }
+
+        // 3. Records without a stored state are drafts
+        for (String uri : missingUris) {
+            result.putIfAbsent(uri, MetadataState.DRAFT);
+        }
+        return result;
+    }
+
+    public synchronized void put(String uri, MetadataState state) {
+        generation++;
+        states.put(uri, state);
+    }
+
+    public synchronized void clearCache() {
+        generation++;
+        states.clear();
+    }
+
+    public synchronized int getEntryCount() {
+        return states.size();
+    }
+
+    private synchronized long getGeneration() {
+        return generation;
+    }
+
+    private synchronized MetadataState load(String uri, MetadataState state, long loadGeneration) {
+        // Do not keep a state read concurrently with a write, nor replace a written one
+        if (loadGeneration != generation) {
+            return state;
+        }
+        return states.computeIfAbsent(uri, key -> state);
+    }
+}
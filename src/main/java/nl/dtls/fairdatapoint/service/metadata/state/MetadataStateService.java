@@ -28,9 +28,14 @@ import nl.dtls.fairdatapoint.database.mongo.repository.MetadataRepository;
 import nl.dtls.fairdatapoint.entity.exception.ResourceNotFoundException;
 import nl.dtls.fairdatapoint.entity.metadata.Metadata;
 import nl.dtls.fairdatapoint.entity.metadata.MetadataState;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataVersion;
 import nl.dtls.fairdatapoint.entity.resource.ResourceDefinition;
 import nl.dtls.fairdatapoint.entity.resource.ResourceDefinitionChild;
+import nl.dtls.fairdatapoint.service.metadata.children.MetadataChildIndexCache;
+import nl.dtls.fairdatapoint.service.metadata.common.MetadataWriteEpoch;
+import nl.dtls.fairdatapoint.service.metadata.render.MetadataRenderCache;
 import nl.dtls.fairdatapoint.service.metadata.validator.MetadataStateValidator;
+import nl.dtls.fairdatapoint.service.metadata.version.MetadataVersionCache;
 import nl.dtls.fairdatapoint.service.user.CurrentUserService;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
@@ -38,9 +43,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -56,12 +63,27 @@ public class MetadataStateService {
     @Autowired
     private MetadataRepository metadataRepository;
 
+    @Autowired
+    private MetadataStateCache metadataStateCache;
+
     @Autowired
     private MetadataStateValidator metadataStateValidator;
 
     @Autowired
     private CurrentUserService currentUserService;
 
+    @Autowired
+    private MetadataVersionCache metadataVersionCache;
+
+    @Autowired
+    private MetadataRenderCache metadataRenderCache;
+
+    @Autowired
+    private MetadataChildIndexCache metadataChildIndexCache;
+
+    @Autowired
+    private MetadataWriteEpoch metadataWriteEpoch;
+
     public Metadata get(IRI metadataUri) {
         final Optional<Metadata> oMetadata = metadataRepository.findByUri(metadataUri.stringValue());
         if (oMetadata.isEmpty()) {
@@ -91,10 +113,7 @@ public class MetadataStateService {
                 childrenUris.add(childUri.stringValue());
             }
         }
-        final Map<String, MetadataState> children =
-                metadataRepository.findByUriIn(childrenUris)
-                        .stream()
-                        .collect(Collectors.toMap(Metadata::getUri, Metadata::getState));
+        final Map<String, MetadataState> children = getStates(childrenUris);
 
         // 4. Build response
         return new MetaStateDTO(
@@ -103,9 +122,24 @@ public class MetadataStateService {
         );
     }
 
+    public Map<String, MetadataState> getStates(Collection<String> metadataUris) {
+        return metadataStateCache.getStates(metadataUris);
+    }
+
+    public Set<String> getPublished(Collection<String> metadataUris) {
+        return getStates(metadataUris)
+                .entrySet()
+                .stream()
+                .filter(entry -> entry.getValue().equals(MetadataState.PUBLISHED))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
     public void initState(IRI metadataUri) {
         final Metadata metadata = new Metadata(null, metadataUri.stringValue(), MetadataState.DRAFT);
         metadataRepository.save(metadata);
+        metadataStateCache.put(metadata.getUri(), metadata.getState());
+        metadataVersionCache.updateStateVersion();
     }
 
     public void modifyState(IRI metadataUri, MetaStateChangeDTO reqDto) {
@@ -122,6 +156,20 @@ public class MetadataStateService {
         // 3. Update
         metadata.setState(reqDto.getCurrent());
         metadataRepository.save(metadata);
+        metadataStateCache.put(metadata.getUri(), metadata.getState());
+        metadataVersionCache.updateStateVersion();
+        // Cached search results may contain the record (drafts are not searchable)
+        metadataWriteEpoch.bump();
+
+        // 4. Evict rendered metadata and update the child index (parent lists only published children
+        //    to anonymous users)
+        metadataRenderCache.evict(metadataUri);
+        metadataVersionCache.get(metadataUri)
+                .map(MetadataVersion::getParent)
+                .ifPresent(parent -> {
+                    metadataRenderCache.evict(parent);
+                    metadataChildIndexCache.updateState(parent, metadataUri);
+                });
     }
 
 }
@@ -0,0 +1,203 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.metadata.version;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
+import nl.dtls.fairdatapoint.database.rdf.repository.generic.GenericMetadataRepository;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataVersion;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import nl.dtls.fairdatapoint.service.settings.SettingsCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+import static nl.dtls.fairdatapoint.entity.metadata.MetadataGetter.getModified;
+import static nl.dtls.fairdatapoint.entity.metadata.MetadataGetter.getParent;
+
+/**
+ * Keeps validators (fdp:metadataModified and parent link) of metadata records in memory,
+ * so that conditional requests can be answered without reading the triple store.
+ * State and membership changes are not reflected in the record timestamps, so they
+ * are tracked with a separate version counter; settings changes with the version of
+ * the settings. Versions are kept in least-recently-used order up to a maximum count.
+ */
+@Slf4j
+@Service
+public class MetadataVersionCache {
+
+    private static final String VIEW_ANONYMOUS = "anonymous";
+
+    private static final String VIEW_AUTHENTICATED = "authenticated";
+
+    private static final char SEPARATOR = '|';
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<String, MetadataVersion> versions =
+            new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MetadataVersion> eldest) {
+                    return size() > maxVersions;
+                }
+            };
+
+    @Value("${repository.cache.maxVersions:100000}")
+    private int maxVersions;
+
+    @Autowired
+    private GenericMetadataRepository metadataRepository;
+
+    @Autowired
+    private SettingsCache settingsCache;
+
+    private final AtomicLong stateVersion = new AtomicLong();
+
+    private long generation;
+
+    private volatile Instant stateModified = Instant.now();
+
+    public Optional<MetadataVersion> get(IRI uri) {
+        final MetadataVersion cached = getCached(uri.stringValue());
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Do not cache a version loaded concurrently with an eviction
+        final long loadGeneration = getGeneration();
+        final Optional<MetadataVersion> oVersion = load(uri);
+        oVersion.ifPresent(version -> put(uri.stringValue(), version, loadGeneration));
+        return oVersion;
+    }
+
+    public List<MetadataVersion> getWithAncestors(IRI uri) {
+        final List<MetadataVersion> versions = new ArrayList<>();
+        Optional<MetadataVersion> oVersion = get(uri);
+        while (oVersion.isPresent()) {
+            versions.add(oVersion.get());
+            oVersion = Optional.ofNullable(oVersion.get().getParent()).flatMap(this::get);
+        }
+        return versions;
+    }
+
+    public String computeETag(List<MetadataVersion> versions, boolean authenticated, String variant) {
+        final StringBuilder builder = new StringBuilder()
+                .append(stateVersion.get())
+                .append(SEPARATOR)
+                .append(settingsCache.getVersion())
+                .append(SEPARATOR)
+                .append(authenticated ? VIEW_AUTHENTICATED : VIEW_ANONYMOUS)
+                .append(SEPARATOR)
+                .append(variant);
+        for (MetadataVersion version : versions) {
+            builder.append(SEPARATOR)
+                    .append(version.getUri().stringValue())
+                    .append(SEPARATOR)
+                    .append(version.getModified().toEpochMilli());
+        }
+        return format("\"%s\"", DigestUtils.md5Hex(builder.toString()));
+    }
+
+    public Instant computeLastModified(List<MetadataVersion> versions) {
+        Instant lastModified = stateModified;
+        if (settingsCache.getModified().isAfter(lastModified)) {
+            lastModified = settingsCache.getModified();
+        }
+        for (MetadataVersion version : versions) {
+            if (version.getModified().isAfter(lastModified)) {
+                lastModified = version.getModified();
+            }
+        }
+        return lastModified;
+    }
+
+    public synchronized void evict(IRI uri) {
+        generation++;
+        versions.remove(uri.stringValue());
+    }
+
+    public void evictAll() {
+        synchronized (this) {
+            generation++;
+            versions.clear();
+        }
+        updateStateVersion();
+    }
+
+    public synchronized int getEntryCount() {
+        return versions.size();
+    }
+
+    public void updateStateVersion() {
+        stateVersion.incrementAndGet();
+        stateModified = Instant.now();
+    }
+
+    private Optional<MetadataVersion> load(IRI uri) {
+        try {
+            final List<Statement> statements = metadataRepository.find(uri);
+            if (statements.isEmpty()) {
+                return Optional.empty();
+            }
+            final Model metadata = new LinkedHashModel(statements);
+            final OffsetDateTime modified = getModified(metadata);
+            return Optional.of(new MetadataVersion(
+                    uri,
+                    getParent(metadata),
+                    modified == null ? Instant.EPOCH : modified.toInstant()
+            ));
+        }
+        catch (MetadataRepositoryException exception) {
+            log.warn("Failed to load version of metadata {}: {}", uri, exception.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private synchronized MetadataVersion getCached(String uri) {
+        return versions.get(uri);
+    }
+
+    private synchronized long getGeneration() {
+        return generation;
+    }
+
+    private synchronized void put(String uri, MetadataVersion version, long loadGeneration) {
+        if (loadGeneration == generation) {
+            versions.put(uri, version);
+        }
+    }
+}
@@ -26,7 +26,9 @@ import com.mongodb.client.MongoCollection;
 import lombok.extern.slf4j.Slf4j;
 import nl.dtls.fairdatapoint.api.dto.reset.ResetDTO;
 import nl.dtls.fairdatapoint.database.mongo.repository.*;
+import nl.dtls.fairdatapoint.database.search.MetadataSearchIndex;
 import nl.dtls.fairdatapoint.entity.resource.ResourceDefinition;
+import nl.dtls.fairdatapoint.service.metadata.common.MetadataCaches;
 import nl.dtls.fairdatapoint.service.metadata.exception.MetadataServiceException;
 import nl.dtls.fairdatapoint.service.metadata.generic.GenericMetadataService;
 import nl.dtls.fairdatapoint.service.resource.ResourceDefinitionCache;
@@ -105,6 +107,12 @@ public class ResetService {
     @Autowired
     private GenericMetadataService genericMetadataService;
 
+    @Autowired
+    private MetadataSearchIndex metadataSearchIndex;
+
+    @Autowired
+    private MetadataCaches metadataCaches;
+
     @Autowired
     private SettingsService settingsService;
 
@@ -176,6 +184,8 @@ public class ResetService {
             genericMetadataService.delete(i(persistentUrl), resourceDefinition.get());
             metadataRepository.deleteAll();
         }
+        metadataCaches.invalidateAll();
+        metadataSearchIndex.clear();
     }
 
     private void restoreDefaultUsers() {
@@ -205,6 +215,8 @@ public class ResetService {
             );
             conn.add(statements);
             metadataRepository.save(FactoryDefaults.metadataRepository(persistentUrl));
+            metadataCaches.invalidateAll();
+            metadataSearchIndex.update(i(persistentUrl));
         }
         catch (RepositoryException exception) {
             log.error(exception.getMessage(), exception);
@@ -25,6 +25,8 @@ package nl.dtls.fairdatapoint.service.resource;
 import lombok.Getter;
 import nl.dtls.fairdatapoint.database.mongo.repository.ResourceDefinitionRepository;
 import nl.dtls.fairdatapoint.entity.resource.ResourceDefinition;
+import nl.dtls.fairdatapoint.service.metadata.render.MetadataRenderCache;
+import nl.dtls.fairdatapoint.service.metadata.version.MetadataVersionCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.Cache;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
@@ -48,6 +50,12 @@ public class ResourceDefinitionCache {
     @Autowired
     private ResourceDefinitionRepository resourceDefinitionRepository;
 
+    @Autowired
+    private MetadataRenderCache metadataRenderCache;
+
+    @Autowired
+    private MetadataVersionCache metadataVersionCache;
+
     @PostConstruct
     public void computeCache() {
         // Get cache
@@ -57,6 +65,9 @@ public class ResourceDefinitionCache {
         // Clear cache
         cache.clear();
         parentCache.clear();
+        metadataRenderCache.clearCache();
+        // Rendered metadata depends on resource definitions, so validators of clients are outdated
+        metadataVersionCache.updateStateVersion();
 
         // Add to cache
         final List<ResourceDefinition> rds = resourceDefinitionRepository.findAll();
@@ -23,17 +23,30 @@
 package nl.dtls.fairdatapoint.service.search;
 
 import lombok.extern.slf4j.Slf4j;
+import nl.dtls.fairdatapoint.database.rdf.repository.common.MetadataRepository;
+import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
 import nl.dtls.fairdatapoint.entity.search.SearchFilterCacheContainer;
+import nl.dtls.fairdatapoint.entity.search.SearchFilterValue;
 import nl.dtls.fairdatapoint.service.label.LabelService;
 import nl.dtls.fairdatapoint.service.settings.SettingsCache;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.Cache;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.lang.String.format;
+import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.i;
 import static nl.dtls.fairdatapoint.config.CacheConfig.SEARCH_FILTERS_CACHE;
 
 @Component
@@ -49,9 +62,25 @@ public class SearchFilterCache {
     @Autowired
     private LabelService labelService;
 
+    @Autowired
+    @Qualifier("genericMetadataRepository")
+    private MetadataRepository metadataRepository;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Map<String, Integer> recordOrdinals = new HashMap<>();
+
+    private final BitSet freeOrdinals = new BitSet();
+
+    private int nextOrdinal;
+
     @PostConstruct
-    public void clearCache() {
+    public synchronized void clearCache() {
+        generation.incrementAndGet();
         cache().clear();
+        recordOrdinals.clear();
+        freeOrdinals.clear();
+        nextOrdinal = 0;
 
         settingsCache
                 .getOrDefaults()
@@ -63,8 +92,81 @@ public class SearchFilterCache {
         return cache().get(cacheKey, SearchFilterCacheContainer.class);
     }
 
-    public void setFilter(String cacheKey, SearchFilterCacheContainer result) {
-        cache().put(cacheKey, result);
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Ordinal of a record (named graph) in the record sets of filter values, ordinals
+     * of deleted records are reused.
+     */
+    public synchronized int getRecordOrdinal(String graph) {
+        return recordOrdinals.computeIfAbsent(graph, key -> {
+            final int free = freeOrdinals.nextSetBit(0);
+            if (free < 0) {
+                return nextOrdinal++;
+            }
+            freeOrdinals.clear(free);
+            return free;
+        });
+    }
+
+    /**
+     * Record set of the given records, records without any filter value are left out.
+     */
+    public synchronized BitSet getRecordSet(Collection<String> graphs) {
+        final BitSet records = new BitSet(recordOrdinals.size());
+        graphs.forEach(graph -> {
+            final Integer ordinal = recordOrdinals.get(graph);
+            if (ordinal != null) {
+                records.set(ordinal);
+            }
+        });
+        return records;
+    }
+
+    public synchronized void setFilter(String cacheKey, SearchFilterCacheContainer result, long loadGeneration) {
+        // Values loaded before a concurrent change of records must not be cached
+        if (loadGeneration == generation.get()) {
+            cache().put(cacheKey, result);
+        }
+    }
+
+    /**
+     * Updates the loaded filter values with the current values of a record (named
+     * graph), so that the filters stay loaded when records change.
+     */
+    public synchronized void update(IRI graph) {
+        generation.incrementAndGet();
+        final Model model;
+        try {
+            model = new LinkedHashModel(metadataRepository.find(graph));
+        }
+        catch (MetadataRepositoryException exception) {
+            log.error("Failed to update search filters of {}: {}", graph, exception.getMessage());
+            cache().clear();
+            return;
+        }
+        settingsCache
+                .getOrDefaults()
+                .getSearchFilters()
+                .forEach(filter -> {
+                    final SearchFilterCacheContainer container = getFilter(filter.getPredicate());
+                    if (container != null) {
+                        container.updateGraph(
+                                graph.stringValue(),
+                                getRecordOrdinal(graph.stringValue()),
+                                toValues(model, i(filter.getPredicate()))
+                        );
+                    }
+                });
+        // A deleted record has no values left in any record set
+        if (model.isEmpty()) {
+            final Integer ordinal = recordOrdinals.remove(graph.stringValue());
+            if (ordinal != null) {
+                freeOrdinals.set(ordinal);
+            }
+        }
     }
 
     public void updateLabels(String cacheKey) {
@@ -75,7 +177,7 @@ public class SearchFilterCache {
                     if (value.getLabel() == null) {
                         labelService
                                 .getLabel(value.getValue(), "en")
-                                .ifPresent(label -> value.setLabel(label.getLabel()));
+                                .ifPresent(label -> container.setLabel(value.getValue(), label.getLabel()));
                     }
                 });
             }
@@ -89,9 +191,24 @@ public class SearchFilterCache {
     }
 
     public void clearFilter(String cacheKey) {
+        generation.incrementAndGet();
         cache().put(cacheKey, null);
     }
 
+    private List<SearchFilterValue> toValues(Model model, IRI predicate) {
+        return model
+                .filter(null, predicate, null)
+                .objects()
+                .stream()
+                .map(value -> new SearchFilterValue(
+                        value.stringValue(),
+                        value.isResource()
+                                ? Models.objectString(model.filter((Resource) value, RDFS.LABEL, null)).orElse(null)
+                                : null
+                ))
+                .toList();
+    }
+
     private Cache cache() {
         return cacheManager.getCache(SEARCH_FILTERS_CACHE);
     }
@@ -23,6 +23,7 @@
 package nl.dtls.fairdatapoint.service.search;
 
 import nl.dtls.fairdatapoint.api.dto.search.*;
+import nl.dtls.fairdatapoint.entity.ontology.OntologyIndexStatus;
 import nl.dtls.fairdatapoint.entity.search.SearchFilterValue;
 import nl.dtls.fairdatapoint.entity.search.SearchResult;
 import nl.dtls.fairdatapoint.entity.settings.SettingsSearchFilter;
@@ -92,6 +93,17 @@ public class SearchMapper {
                 .value(value.getValue())
                 .label(value.getLabel())
                 .preset(false)
+                .count(value.getCount())
+                .build();
+    }
+
+    public OntologyIndexStatusDTO toOntologyIndexStatusDTO(OntologyIndexStatus status) {
+        return OntologyIndexStatusDTO
+                .builder()
+                .url(status.getUrl())
+                .state(status.getState())
+                .error(status.getError())
+                .updatedAt(status.getUpdatedAt())
                 .build();
     }
 
@@ -0,0 +1,138 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import nl.dtls.fairdatapoint.service.metadata.common.MetadataWriteEpoch;
+import nl.dtls.fairdatapoint.util.ThrowingSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of search result pages keyed by the normalized request, kept in
+ * least-recently-used order and dropped as a whole when the metadata write epoch
+ * changes.
+ */
+@Component
+public class SearchResultCache {
+
+    private static final String METRIC_REQUESTS = "fdp.search.cache.requests";
+    private static final String METRIC_ENTRIES = "fdp.search.cache.entries";
+    private static final String METRIC_LATENCY = "fdp.search.latency";
+    private static final String TAG_RESULT = "result";
+    private static final String TAG_ENDPOINT = "endpoint";
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<List<Object>, SearchResultPage> pages =
+            new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, SearchResultPage> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MetadataWriteEpoch metadataWriteEpoch;
+
+    @Value("${search.cache.maxEntries:1000}")
+    private int maxEntries;
+
+    private long epoch;
+
+    private Counter hits;
+
+    private Counter misses;
+
+    @PostConstruct
+    public void registerMetrics() {
+        hits = meterRegistry.counter(METRIC_REQUESTS, TAG_RESULT, "hit");
+        misses = meterRegistry.counter(METRIC_REQUESTS, TAG_RESULT, "miss");
+        Gauge.builder(METRIC_ENTRIES, this, SearchResultCache::getEntryCount).register(meterRegistry);
+    }
+
+    /**
+     * Cached page of the request with the given endpoint and key, computed by the
+     * loader (and cached if no metadata changed meanwhile) when missing.
+     */
+    public <E extends Exception> SearchResultPage get(
+            String endpoint, List<Object> key, ThrowingSupplier<SearchResultPage, E> loader
+    ) throws E {
+        final long start = System.nanoTime();
+        final List<Object> cacheKey = List.of(endpoint, key);
+        final long loadEpoch = metadataWriteEpoch.get();
+        SearchResultPage page = lookup(cacheKey, loadEpoch);
+        final boolean hit = page != null;
+        if (hit) {
+            hits.increment();
+        }
+        else {
+            misses.increment();
+            page = loader.get();
+            store(cacheKey, page, loadEpoch);
+        }
+        Timer.builder(METRIC_LATENCY)
+                .tag(TAG_ENDPOINT, endpoint)
+                .tag(TAG_RESULT, hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return page;
+    }
+
+    public synchronized void clearCache() {
+        pages.clear();
+    }
+
+    public synchronized int getEntryCount() {
+        return pages.size();
+    }
+
+    private synchronized SearchResultPage lookup(List<Object> cacheKey, long currentEpoch) {
+        if (currentEpoch != epoch) {
+            pages.clear();
+            epoch = currentEpoch;
+        }
+        return pages.get(cacheKey);
+    }
+
+    private synchronized void store(List<Object> cacheKey, SearchResultPage page, long loadEpoch) {
+        // Results computed while metadata changed must not be cached
+        if (loadEpoch == epoch && loadEpoch == metadataWriteEpoch.get()) {
+            pages.put(cacheKey, page);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import nl.dtls.fairdatapoint.api.dto.search.SearchFilterDTO;
+import nl.dtls.fairdatapoint.api.dto.search.SearchResultDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+@AllArgsConstructor
+@Getter
+public class SearchResultPage {
+
+    private final List<SearchResultDTO> results;
+
+    private final int limit;
+
+    private final Optional<String> nextCursor;
+
+    /**
+     * Search filters with the number of matching records per value, over all pages
+     */
+    private final List<SearchFilterDTO> facets;
+
+    /**
+     * Whether the results were cut off at the maximum number of rows of a SPARQL query
+     */
+    private final boolean truncated;
+}
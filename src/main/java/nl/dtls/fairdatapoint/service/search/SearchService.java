@@ -22,24 +22,29 @@
  */
 package nl.dtls.fairdatapoint.service.search;
 
-import com.google.common.base.Charsets;
-import com.google.common.io.Resources;
 import nl.dtls.fairdatapoint.api.dto.search.*;
 import nl.dtls.fairdatapoint.database.ontology.OntologySearcher;
+import nl.dtls.fairdatapoint.database.rdf.repository.common.SparqlQueryGuard;
+import nl.dtls.fairdatapoint.database.rdf.repository.common.SparqlQueryRegistry;
+import nl.dtls.fairdatapoint.database.rdf.repository.common.SparqlQueryResult;
 import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
 import nl.dtls.fairdatapoint.database.rdf.repository.generic.GenericMetadataRepository;
-import nl.dtls.fairdatapoint.entity.exception.ResourceNotFoundException;
+import nl.dtls.fairdatapoint.database.search.MetadataSearchIndex;
+import nl.dtls.fairdatapoint.database.search.MetadataTermStatistics;
+import nl.dtls.fairdatapoint.entity.exception.ValidationException;
 import nl.dtls.fairdatapoint.entity.metadata.MetadataState;
 import nl.dtls.fairdatapoint.entity.ontology.TermAssociation;
+import nl.dtls.fairdatapoint.entity.search.SearchCursor;
 import nl.dtls.fairdatapoint.entity.search.SearchFilterCacheContainer;
 import nl.dtls.fairdatapoint.entity.search.SearchFilterType;
 import nl.dtls.fairdatapoint.entity.search.SearchFilterValue;
 import nl.dtls.fairdatapoint.entity.search.SearchResult;
 import nl.dtls.fairdatapoint.entity.settings.SettingsSearchFilter;
+import nl.dtls.fairdatapoint.service.metadata.count.MetadataCountCache;
 import nl.dtls.fairdatapoint.service.metadata.state.MetadataStateService;
 import nl.dtls.fairdatapoint.service.settings.SettingsService;
+import nl.dtls.fairdatapoint.service.user.CurrentUserService;
 import org.apache.commons.lang.text.StrSubstitutor;
-import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -47,8 +52,6 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.IOException;
-import java.net.URL;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -64,7 +67,11 @@ public class SearchService {
 
     private static final String QUERY_TEMPLATE_NAME = "queryTemplate.sparql";
 
-    private static final String QUERY_TEMPLATE = loadSparqlQueryTemplate();
+    private static final int DEFAULT_LIMIT = 50;
+
+    private static final int MAX_LIMIT = 1000;
+
+    private static final String MSG_INVALID_LIMIT = "Limit must be between 1 and %d";
 
     @Autowired
     private GenericMetadataRepository metadataRepository;
@@ -84,73 +91,75 @@ public class SearchService {
     @Autowired
     private OntologySearcher ontologySearcher;
 
+    @Autowired
+    private SparqlQueryRegistry sparqlQueryRegistry;
+
+    @Autowired
+    private MetadataCountCache metadataCountCache;
+
+    @Autowired
+    private MetadataSearchIndex metadataSearchIndex;
+
+    @Autowired
+    private MetadataTermStatistics metadataTermStatistics;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private SparqlQueryGuard sparqlQueryGuard;
+
     @Autowired
     @Qualifier("persistentUrl")
     private String persistentUrl;
 
-    public List<SearchResultDTO> search(
+    public SearchResultPage search(
             SearchSavedQueryDTO searchSavedQueryDTO
     ) throws MetadataRepositoryException {
     	
-        return search(searchSavedQueryDTO.getVariables());
-    }
-    
-    public List<SearchResultDTO> search(SearchQueryDTO reqDto) throws MetadataRepositoryException {
-
-		log.info("A regular search has been submitted with query {}", reqDto.getQuery());
-
-        final List<SearchResult> results = metadataRepository.findByLiteral(l(reqDto.getQuery()));
-        return processSearchResults(results);
+        return searchAll(searchSavedQueryDTO.getVariables());
     }
 
     /**
-     * Count how often a given word occurs in a searchresult's document.
-     * 
-     * @param result the search result, corresponding to a metadata document
-     * @param searchWord the word to search for
-     * @return the number of occurrences of the word
+     * All results of a query (e.g. of a saved query), not split into pages.
      */
-    private int countWordOccurenceIn(SearchResult result, String searchWord) {
-    	int count = 0;
-    	for (String word : ontologySearcher.getKeywordsFromString(result.getTitle() + result.getDescription())) {
-    		
-    		if (word.equals(searchWord))
-    			count ++;
-    	}
-    	return count;
-	}
+    public SearchResultPage searchAll(
+            SearchQueryVariablesDTO reqDto
+    ) throws MetadataRepositoryException, MalformedQueryException {
+        return searchResultCache.get(
+                "saved",
+                cacheKey(reqDto.getPrefixes().strip(), reqDto.getGraphPattern().strip(),
+                        reqDto.getOrdering().strip()),
+                () -> searchQuery(reqDto, null, 0)
+        );
+    }
+    
+    public SearchResultPage search(
+            SearchQueryDTO reqDto, Integer limit, String cursor
+    ) throws MetadataRepositoryException {
+        return searchResultCache.get(
+                "literal",
+                cacheKey(normalize(reqDto.getQuery()), limit, cursor),
+                () -> searchLiteral(reqDto, limit, cursor)
+        );
+    }
 
-    /**
-     * Count the number of words in the given search result's document.
-     * 
-     * @param result the search result, corresponding to a metadata document
-     * @return the number of words in the document
-     */
-	private int countWordsIn(SearchResult result) {
-    	return ontologySearcher.getKeywordsFromString(result.getTitle() + result.getDescription()).size();
-	}
-	
-	/**
-	 * Sort all search results by their score. highest score goes first.
-	 * 
-	 * @param results the list of results to sort
-	 * @param resultScores the scores to sort by
-	 */
-	private void sortSearchResultsByScores(List<SearchResult> results, final Map<SearchResult, Double> resultScores) {
+    private SearchResultPage searchLiteral(
+            SearchQueryDTO reqDto, Integer limit, String cursor
+    ) throws MetadataRepositoryException {
 
-    	Collections.sort(results, new Comparator<SearchResult>() {
-    		
-    		public int compare(SearchResult r1, SearchResult r2) {
-    			
-    			if (resultScores.get(r1) > resultScores.get(r2))
-    				return -1;
-    			else if (resultScores.get(r1) < resultScores.get(r2))
-    				return 1;
-    			else
-    				return 0;
-    		}
-    	});
-	}
+		log.info("A regular search has been submitted with query {}", reqDto.getQuery());
+
+        final Map<String, List<SearchResult>> results = findByLiteral(reqDto.getQuery())
+                .stream()
+                .collect(Collectors.groupingBy(SearchResult::getUri, LinkedHashMap::new, toList()));
+        final Map<String, Double> scores = new LinkedHashMap<>();
+        results.keySet().forEach(uri -> scores.put(uri, 0.0));
+        return rankSearchResults(scores, results::get, limit, cursor);
+    }
 
 	private double associationRelevanceThreshold;
 	
@@ -174,57 +183,6 @@ public class SearchService {
     	return words;
 	}
 	
-	/**
-	 * Search for the given set of words through the metadata documents and at the same time, score
-	 * each result by TF-IDF.
-	 * 
-	 * @param words the input words, each will be search for independently
-	 * @return the resuling metadata documents, with associated TF-IDF scores
-	 * @throws MetadataRepositoryException, if there are problems retrieving metadata from the repository.
-	 */
-	public Map<SearchResult, Double> searchScoreTfidf(Set<String> words) throws MetadataRepositoryException {
-
-    	// Count the total amount of documents in the triple store.
-    	// This is relevant for scoring the results.
-    	int total = metadataRepository.countTotal();
-
-    	// Search for the words in the triple store and score the results
-    	Map<SearchResult, Double> resultScores = new HashMap<SearchResult, Double>();
-    	
-    	for (String word : words) {
-
-    		// Search for documents, having this word.
-    		List<SearchResult> results = metadataRepository.findByLiteral(l(word));
-    		if (results.size() == 0)
-    			continue;
-
-            log.info("{} results for word \"{}\"", results.size(), word);
-    		
-    		// Calculate the inverse document frequency for the word.
-    		double idf = Math.log(((double)total) / results.size());
-    		
-    		for (SearchResult result : results) {
-			
-    			// Calculate the term frequency for this word in this document.
-    			int resultWordCount = countWordsIn(result),
-    				resultMatchCount = countWordOccurenceIn(result, word);
-    			
-    			double tf = ((double)resultMatchCount) / resultWordCount;
-    			
-    			// Add up the scores for the result
-    			double score = tf * idf;
-    			if (resultScores.containsKey(result))
-					score += resultScores.get(result);
-    			
-                log.info("{} gets score {}", result.getTitle(), score);
-
-				resultScores.put(result, score);
-    		}
-    	}
-    	
-    	return resultScores;
-	}
-
 	/**
 	 * This is an extended search functionality. It uses ontology files that have been indexed and stored beforehand.
 	 * if a query's keyword matches with a term in the ontology, then other terms from this ontology are added.
@@ -233,27 +191,51 @@ public class SearchService {
 	 * @return the search result response
 	 * @throws MetadataRepositoryException, if there are problems retrieving metadata
 	 */
-    public List<SearchResultDTO> searchAssociations(SearchQueryDTO reqDto) throws MetadataRepositoryException {
+    public SearchResultPage searchAssociations(
+            SearchQueryDTO reqDto, Integer limit, String cursor
+    ) throws MetadataRepositoryException {
+        return searchResultCache.get(
+                "associations",
+                cacheKey(normalize(reqDto.getQuery()), limit, cursor),
+                () -> scoreAssociations(reqDto, limit, cursor)
+        );
+    }
+
+    private SearchResultPage scoreAssociations(SearchQueryDTO reqDto, Integer limit, String cursor) {
     	    	
     	// Expand the number of words to search for, using the web ontologies.
     	Set<String> words = findAssociatedWords(reqDto.getQuery());
     	
-    	// Search for the words in the triple store and score the results
-    	Map<SearchResult, Double> resultScores = searchScoreTfidf(words);
-    	
-    	// Sort by the scores we calculated earlier
-    	List<SearchResult> results = new ArrayList<SearchResult>(resultScores.keySet());
-    	sortSearchResultsByScores(results, resultScores);
+    	// Score the documents having these words, highest score goes first
+    	Map<String, Double> scores = metadataTermStatistics.scoreTfidf(words);
     	
-        return processSearchResults(results);
+        return rankSearchResults(scores, uri -> metadataTermStatistics.findResults(uri, words), limit, cursor);
     }
 
-	public List<SearchResultDTO> search(
-            SearchQueryVariablesDTO reqDto
+	public SearchResultPage search(
+            SearchQueryVariablesDTO reqDto, Integer limit, String cursor
+    ) throws MetadataRepositoryException, MalformedQueryException {
+        return searchResultCache.get(
+                "query",
+                cacheKey(reqDto.getPrefixes().strip(), reqDto.getGraphPattern().strip(),
+                        reqDto.getOrdering().strip(), limit, cursor),
+                () -> searchQuery(
+                        reqDto,
+                        resolveLimit(limit),
+                        cursor == null ? 0 : SearchCursor.fromCursor(cursor).getOffset()
+                )
+        );
+    }
+
+    /**
+     * Evaluate the composed query, one page from the offset or all results if there is no page limit.
+     */
+    private SearchResultPage searchQuery(
+            SearchQueryVariablesDTO reqDto, Integer pageLimit, long offset
     ) throws MetadataRepositoryException, MalformedQueryException {
 		
-    	// Compose query
-        final String query = composeQuery(reqDto);
+    	// Compose query (with one more row to find out if there is a next page)
+        final String query = composeQuery(reqDto, pageLimit == null ? null : pageLimit + 1, offset);
         
 		log.info("A SPARQL-based search has been submitted with query {}", query);
 
@@ -261,13 +243,68 @@ public class SearchService {
         final SPARQLParser parser = new SPARQLParser();
         parser.parseQuery(query, persistentUrl);
         // Get and process results for query
-        final List<SearchResult> results = metadataRepository.findBySparqlQuery(query);
-        
-        return processSearchResults(results);
+        final SparqlQueryResult<SearchResult> queryResult = metadataRepository.findBySparqlQuery(query);
+        final List<SearchResult> results = queryResult.getRows();
+        final boolean truncated = queryResult.isTruncated();
+        if (pageLimit == null) {
+            return new SearchResultPage(
+                    processSearchResults(results), results.size(), Optional.empty(), List.of(), truncated
+            );
+        }
+        if (results.size() <= pageLimit) {
+            return new SearchResultPage(
+                    processSearchResults(results), pageLimit, Optional.empty(), List.of(), truncated
+            );
+        }
+        return new SearchResultPage(
+                processSearchResults(results.subList(0, pageLimit)),
+                pageLimit,
+                Optional.of(new SearchCursor(0, "", offset + pageLimit).toCursor()),
+                List.of(),
+                false
+        );
+    }
+
+    /**
+     * Cancel the SPARQL-based search evaluated by the given thread, if any.
+     */
+    public void cancelQuery(Thread thread) {
+        sparqlQueryGuard.cancel(thread);
+    }
+
+    public void rebuildIndex() throws MetadataRepositoryException {
+        metadataSearchIndex.rebuild();
+    }
+
+    public List<OntologyIndexStatusDTO> getOntologyIndexStatus() {
+        return ontologySearcher
+                .getIndexStatus()
+                .stream()
+                .map(searchMapper::toOntologyIndexStatusDTO)
+                .toList();
+    }
+
+    public SearchStatsDTO getStats() throws MetadataRepositoryException {
+        // Drafts are counted only for signed-in users, as they are not visible to others
+        final Map<String, Long> counts = currentUserService.getCurrentUser().isPresent()
+                ? metadataCountCache.getCounts()
+                : metadataCountCache.getPublishedCounts();
+        return new SearchStatsDTO(
+                counts.values().stream().mapToLong(Long::longValue).sum(),
+                counts
+        );
+    }
+
+    public List<SearchFilterDTO> getFacets(SearchQueryDTO reqDto) throws MetadataRepositoryException {
+        return search(reqDto, null, null).getFacets();
+    }
+
+    public List<SearchFilterDTO> getAssociationFacets(SearchQueryDTO reqDto) throws MetadataRepositoryException {
+        return searchAssociations(reqDto, null, null).getFacets();
     }
 
     public SearchQueryTemplateDTO getSearchQueryTemplate() {
-        return searchMapper.toQueryTemplateDTO(QUERY_TEMPLATE);
+        return searchMapper.toQueryTemplateDTO(getQueryTemplate());
     }
 
     public List<SearchFilterDTO> getSearchFilters() {
@@ -281,6 +318,7 @@ public class SearchService {
 
     public List<SearchFilterDTO> resetSearchFilters() {
         searchFilterCache.clearCache();
+        searchResultCache.clearCache();
         return getSearchFilters();
     }
 
@@ -293,10 +331,16 @@ public class SearchService {
                         .map(SearchFilterItemDTO::getValue)
                         .collect(Collectors.toSet());
         if (filter.isQueryFromRecords()) {
+            final List<SearchFilterValue> recordValues = queryFilterItems(filter.getPredicate());
+            final Map<String, Long> counts = recordValues
+                    .stream()
+                    .collect(Collectors.toMap(SearchFilterValue::getValue, SearchFilterValue::getCount));
             final List<SearchFilterItemDTO> xvalues = new ArrayList<>();
-            xvalues.addAll(result.getValues());
+            result.getValues().forEach(item -> xvalues.add(
+                    item.toBuilder().count(counts.getOrDefault(item.getValue(), 0L)).build()
+            ));
             xvalues.addAll(
-                queryFilterItems(filter.getPredicate())
+                recordValues
                     .stream()
                     .filter(item -> !values.contains(item.getValue()))
                     .map(searchMapper::toFilterItemDTO)
@@ -312,15 +356,22 @@ public class SearchService {
 
     private List<SearchFilterValue> queryFilterItems(String predicate) {
         // TODO: filter related to DRAFT records
+        return loadFilter(predicate).getValues();
+    }
+
+    private SearchFilterCacheContainer loadFilter(String predicate) {
         final SearchFilterCacheContainer cacheContainer =
                 searchFilterCache.getFilter(predicate);
         if (cacheContainer != null) {
-            return cacheContainer.getValues();
+            return cacheContainer;
         }
         try {
-            final List<SearchFilterValue> result =
-                    metadataRepository.findByFilterPredicate(i(predicate));
-            searchFilterCache.setFilter(predicate, new SearchFilterCacheContainer(result));
+            final long loadGeneration = searchFilterCache.getGeneration();
+            final SearchFilterCacheContainer result = new SearchFilterCacheContainer(
+                    metadataRepository.findByFilterPredicate(i(predicate)),
+                    searchFilterCache::getRecordOrdinal
+            );
+            searchFilterCache.setFilter(predicate, result, loadGeneration);
             return result;
         }
         catch (MetadataRepositoryException exception) {
@@ -329,56 +380,158 @@ public class SearchService {
     }
 
     private List<SearchResultDTO> processSearchResults(List<SearchResult> results) {
-        final Map<String, SearchResultDTO> resultDtos = results
+        final Map<String, List<SearchResult>> resultsByUri = results
                 .stream()
                 .collect(
                         Collectors.groupingBy(
                                 SearchResult::getUri,
+                                LinkedHashMap::new,
                                 Collectors.mapping(Function.identity(), toList())
                         )
-                )
+                );
+        final Set<String> drafts = findDrafts(resultsByUri.keySet());
+        return resultsByUri
                 .entrySet()
-                .parallelStream()
-                .filter(entry -> isUsableForFilter(i(entry.getKey())))
-                .map(entry -> searchMapper.toResultDTO(entry.getKey(), entry.getValue()))
-                .collect(Collectors.toMap(SearchResultDTO::getUri, Function.identity()));
-        return results
                 .stream()
-                .map(SearchResult::getUri)
-                .distinct()
-                .map(resultDtos::get)
-                .filter(Objects::nonNull)
+                .filter(entry -> !drafts.contains(entry.getKey()))
+                .map(entry -> searchMapper.toResultDTO(entry.getKey(), entry.getValue()))
                 .toList();
     }
 
-    private boolean isUsableForFilter(IRI iri) {
-        try {
-            return !metadataStateService
-                    .get(iri)
-                    .getState()
-                    .equals(MetadataState.DRAFT);
+    /**
+     * Select the requested page of the best scored (non-draft) records and convert
+     * their results, without sorting all scored records. Facets are counted over
+     * all of these records.
+     */
+    private SearchResultPage rankSearchResults(
+            Map<String, Double> scores, Function<String, List<SearchResult>> resultsByUri, Integer limit, String cursor
+    ) {
+        final int pageLimit = resolveLimit(limit);
+        final SearchCursor after = cursor == null ? null : SearchCursor.fromCursor(cursor);
+        final Set<String> drafts = findDrafts(scores.keySet());
+        final String[] uris = scores
+                .keySet()
+                .stream()
+                .filter(uri -> !drafts.contains(uri))
+                .toArray(String[]::new);
+        final double[] uriScores = new double[uris.length];
+        for (int index = 0; index < uris.length; index++) {
+            uriScores[index] = scores.get(uris[index]);
         }
-        catch (ResourceNotFoundException exception) {
-            return true;
+        final List<SearchFilterDTO> facets = countFacets(uris);
+        final int[] selected = TopKSelector.select(uriScores, uris, pageLimit + 1, after);
+        final int pageSize = Math.min(selected.length, pageLimit);
+        final List<SearchResultDTO> results = new ArrayList<>(pageSize);
+        for (int position = 0; position < pageSize; position++) {
+            final String uri = uris[selected[position]];
+            results.add(searchMapper.toResultDTO(uri, resultsByUri.apply(uri)));
         }
+        if (selected.length <= pageLimit) {
+            return new SearchResultPage(results, pageLimit, Optional.empty(), facets, false);
+        }
+        final int last = selected[pageSize - 1];
+        return new SearchResultPage(
+                results,
+                pageLimit,
+                Optional.of(new SearchCursor(uriScores[last], uris[last], 0).toCursor()),
+                facets,
+                false
+        );
     }
 
-    private String composeQuery(SearchQueryVariablesDTO reqDto) {
-        final StrSubstitutor substitutor =
-                new StrSubstitutor(searchMapper.toSubstitutions(reqDto), "{{", "}}");
-        return substitutor.replace(QUERY_TEMPLATE);
+    /**
+     * Count the values of all search filters within the given records, in one pass
+     * over the record sets of the filter values.
+     */
+    private List<SearchFilterDTO> countFacets(String[] uris) {
+        final BitSet records = searchFilterCache.getRecordSet(Arrays.asList(uris));
+        return settingsService
+                .getOrDefaults()
+                .getSearchFilters()
+                .stream()
+                .map(filter -> {
+                    final SearchFilterCacheContainer container = loadFilter(filter.getPredicate());
+                    final Map<String, Long> counts = container.countValues(records);
+                    final SearchFilterDTO facet = searchMapper.toFilterDTO(filter);
+                    final Set<String> presetValues = new HashSet<>();
+                    final List<SearchFilterItemDTO> items = new ArrayList<>();
+                    facet.getValues().forEach(item -> {
+                        presetValues.add(item.getValue());
+                        items.add(item.toBuilder().count(counts.getOrDefault(item.getValue(), 0L)).build());
+                    });
+                    container
+                            .getValues()
+                            .stream()
+                            .filter(value -> counts.containsKey(value.getValue()))
+                            .filter(value -> !presetValues.contains(value.getValue()))
+                            .map(value -> searchMapper.toFilterItemDTO(value).toBuilder()
+                                    .count(counts.get(value.getValue()))
+                                    .build())
+                            .forEach(items::add);
+                    facet.setValues(items);
+                    return facet;
+                })
+                .toList();
     }
 
-    private static String loadSparqlQueryTemplate() {
-        try {
-            final URL fileURL = SearchService.class.getResource(QUERY_TEMPLATE_NAME);
-            return Resources.toString(fileURL, Charsets.UTF_8);
+    /**
+     * Key of a search request, including the caller's visibility (anonymous or not)
+     * as the results may differ between them.
+     */
+    private List<Object> cacheKey(Object... parts) {
+        final List<Object> key = new ArrayList<>(Arrays.asList(parts));
+        key.add(currentUserService.getCurrentUser().isPresent());
+        return key;
+    }
+
+    private String normalize(String query) {
+        return query.strip().replaceAll("\\s+", " ");
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
         }
-        catch (IOException exception) {
-            throw new RuntimeException(
-                    format("Cannot load SPARQL template for search: %s",
-                            exception.getMessage())
-            );
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException(format(MSG_INVALID_LIMIT, MAX_LIMIT));
+        }
+        return limit;
+    }
+
+    private List<SearchResult> findByLiteral(String query) throws MetadataRepositoryException {
+        final Optional<List<SearchResult>> indexed = metadataSearchIndex.findByLiteral(query);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+        // Queries without any indexable term (e.g. only punctuation) scan the triple store
+        return metadataRepository.findByLiteral(l(query));
+    }
+
+    /**
+     * Resolve the draft records among the given URIs in bulk (from the state index,
+     * with a single query for unknown ones); records without a state count as drafts.
+     */
+    private Set<String> findDrafts(Collection<String> uris) {
+        return metadataStateService
+                .getStates(uris)
+                .entrySet()
+                .stream()
+                .filter(entry -> entry.getValue().equals(MetadataState.DRAFT))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    private String composeQuery(SearchQueryVariablesDTO reqDto, Integer limit, long offset) {
+        final StrSubstitutor substitutor = new StrSubstitutor(searchMapper.toSubstitutions(reqDto), "{{", "}}");
+        final String query = substitutor.replace(getQueryTemplate());
+        if (limit == null) {
+            return query;
         }
+        // Paging is not part of the template that clients get to see
+        return format("%s%nLIMIT %d%nOFFSET %d%n", query.stripTrailing(), limit, offset);
+    }
+
+    private String getQueryTemplate() {
+        return sparqlQueryRegistry.get(QUERY_TEMPLATE_NAME, SearchService.class).getText();
     }
 }
@@ -0,0 +1,105 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.search;
+
+import nl.dtls.fairdatapoint.entity.search.SearchCursor;
+
+/**
+ * Selects the best ranked entries (highest score, then smallest key) with a
+ * bounded heap, without sorting all of them.
+ */
+public final class TopKSelector {
+
+    private TopKSelector() {
+    }
+
+    /**
+     * Indexes of at most {@code k} best entries after the cursor (if any), best first.
+     */
+    public static int[] select(double[] scores, String[] keys, int k, SearchCursor after) {
+        // Min-heap by rank, the worst selected entry is at the root
+        final int[] heap = new int[k];
+        int size = 0;
+        for (int index = 0; index < scores.length; index++) {
+            if (after != null && !after.isBefore(scores[index], keys[index])) {
+                continue;
+            }
+            if (size < k) {
+                heap[size] = index;
+                siftUp(heap, size, scores, keys);
+                size++;
+            }
+            else if (k > 0 && isBetter(index, heap[0], scores, keys)) {
+                heap[0] = index;
+                siftDown(heap, size, scores, keys);
+            }
+        }
+        final int[] result = new int[size];
+        for (int position = size - 1; position >= 0; position--) {
+            result[position] = heap[0];
+            heap[0] = heap[position];
+            siftDown(heap, position, scores, keys);
+        }
+        return result;
+    }
+
+    private static boolean isBetter(int first, int second, double[] scores, String[] keys) {
+        final int byScore = Double.compare(scores[first], scores[second]);
+        return byScore > 0 || byScore == 0 && keys[first].compareTo(keys[second]) < 0;
+    }
+
+    private static void siftUp(int[] heap, int position, double[] scores, String[] keys) {
+        int child = position;
+        while (child > 0) {
+            final int parent = (child - 1) / 2;
+            if (!isBetter(heap[parent], heap[child], scores, keys)) {
+                return;
+            }
+            swap(heap, parent, child);
+            child = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores, String[] keys) {
+        int parent = 0;
+        while (true) {
+            final int left = 2 * parent + 1;
+            if (left >= size) {
+                return;
+            }
+            final int right = left + 1;
+            final int worse = right < size && isBetter(heap[left], heap[right], scores, keys) ? right : left;
+            if (!isBetter(heap[parent], heap[worse], scores, keys)) {
+                return;
+            }
+            swap(heap, parent, worse);
+            parent = worse;
+        }
+    }
+
+    private static void swap(int[] heap, int first, int second) {
+        final int value = heap[first];
+        heap[first] = heap[second];
+        heap[second] = value;
+    }
+}
@@ -43,6 +43,7 @@ public class SearchSavedQueryMapper {
                 .variables(query.getVariables())
                 .user(userDTO)
                 .type(query.getType())
+                .materialized(query.isMaterialized())
                 .createdAt(query.getCreatedAt())
                 .updatedAt(query.getUpdatedAt())
                 .build();
@@ -56,6 +57,7 @@ public class SearchSavedQueryMapper {
                 .name(reqDto.getName())
                 .description(reqDto.getDescription())
                 .type(reqDto.getType())
+                .materialized(reqDto.isMaterialized())
                 .variables(reqDto.getVariables())
                 .userUuid(userDto == null ? null : userDto.getUuid())
                 .createdAt(Instant.now())
@@ -72,6 +74,7 @@ public class SearchSavedQueryMapper {
                 .variables(reqDto.getVariables())
                 .userUuid(query.getUserUuid())
                 .type(reqDto.getType())
+                .materialized(reqDto.isMaterialized())
                 .updatedAt(Instant.now())
                 .build();
     }
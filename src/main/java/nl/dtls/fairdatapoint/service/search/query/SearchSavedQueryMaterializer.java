@@ -0,0 +1,245 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.service.search.query;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.dtls.fairdatapoint.api.dto.search.SearchQueryVariablesDTO;
+import nl.dtls.fairdatapoint.database.mongo.repository.SearchSavedQueryRepository;
+import nl.dtls.fairdatapoint.database.rdf.repository.exception.MetadataRepositoryException;
+import nl.dtls.fairdatapoint.entity.search.SearchSavedQuery;
+import nl.dtls.fairdatapoint.service.metadata.common.MetadataWriteEpoch;
+import nl.dtls.fairdatapoint.service.search.SearchResultPage;
+import nl.dtls.fairdatapoint.service.search.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * Keeps the results of saved queries marked as materialized, so they are served
+ * without evaluating the query. The materialized queries are tracked in memory (loaded
+ * on startup and kept up to date by the saved query service), their results are
+ * recomputed on a dedicated thread once metadata changed (write epoch) or they are
+ * older than the maximum age. Results older than the maximum stale age (e.g. because
+ * refreshes keep failing) are not served, they are recomputed on request instead.
+ * Concurrent computations of the same query are evaluated once.
+ */
+@Slf4j
+@Service
+public class SearchSavedQueryMaterializer {
+
+    private static final String MSG_FAILED = "Failed to materialize saved query %s";
+
+    private final Map<String, SearchQueryVariablesDTO> queries = new ConcurrentHashMap<>();
+
+    private final Map<String, SearchSavedQueryResults> materialized = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastVersion = new AtomicLong();
+
+    private final Map<String, CompletableFuture<SearchSavedQueryResults>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${search.savedQuery.refreshInterval:PT5S}")
+    private Duration refreshInterval;
+
+    @Value("${search.savedQuery.maxAge:PT10M}")
+    private Duration maxAge;
+
+    @Value("${search.savedQuery.maxStaleAge:PT1H}")
+    private Duration maxStaleAge;
+
+    @Autowired
+    private SearchSavedQueryRepository searchSavedQueryRepository;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private MetadataWriteEpoch metadataWriteEpoch;
+
+    private ScheduledExecutorService refreshExecutor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "saved-query-materializer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshExecutor.scheduleWithFixedDelay(
+                this::refreshStale, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Track the materialized saved queries stored in the database, e.g. after they
+     * were changed without the saved query service.
+     */
+    public void reload() {
+        final List<SearchSavedQuery> savedQueries = searchSavedQueryRepository.findByMaterializedTrue();
+        queries.clear();
+        savedQueries.forEach(query -> queries.put(query.getUuid(), query.getVariables()));
+        savedQueries.forEach(query -> evict(query.getUuid()));
+        materialized.keySet().retainAll(queries.keySet());
+        versions.keySet().retainAll(queries.keySet());
+    }
+
+    public SearchSavedQueryResults get(String uuid, SearchQueryVariablesDTO variables)
+            throws MetadataRepositoryException {
+        queries.putIfAbsent(uuid, variables);
+        final SearchSavedQueryResults results = materialized.get(uuid);
+        if (results != null && results.getAge().compareTo(maxStaleAge) <= 0) {
+            return results;
+        }
+        // Not computed yet (e.g. just marked as materialized) or too old to be served
+        return refresh(uuid, variables);
+    }
+
+    public boolean isStale(SearchSavedQueryResults results) {
+        return results.getEpoch() != metadataWriteEpoch.get() || results.getAge().compareTo(maxAge) > 0;
+    }
+
+    /**
+     * Track a created or changed saved query, dropping the results of its previous variables.
+     */
+    public void update(SearchSavedQuery query) {
+        evict(query.getUuid());
+        if (query.isMaterialized()) {
+            queries.put(query.getUuid(), query.getVariables());
+        }
+        else {
+            remove(query.getUuid());
+        }
+    }
+
+    public void remove(String uuid) {
+        evict(uuid);
+        queries.remove(uuid);
+        versions.remove(uuid);
+    }
+
+    private void evict(String uuid) {
+        // Results being computed from the previous variables are not kept
+        versions.put(uuid, lastVersion.incrementAndGet());
+        inFlight.remove(uuid);
+        materialized.remove(uuid);
+    }
+
+    private void refreshStale() {
+        queries.forEach((uuid, variables) -> {
+            final SearchSavedQueryResults results = materialized.get(uuid);
+            if (results != null && !isStale(results)) {
+                return;
+            }
+            try {
+                refresh(uuid, variables);
+            }
+            catch (Exception exception) {
+                log.warn("Failed to materialize saved query {}: {}", uuid, exception.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Compute the results of a query, or wait for the computation already running.
+     */
+    private SearchSavedQueryResults refresh(String uuid, SearchQueryVariablesDTO variables)
+            throws MetadataRepositoryException {
+        final CompletableFuture<SearchSavedQueryResults> flight = new CompletableFuture<>();
+        final CompletableFuture<SearchSavedQueryResults> running = inFlight.putIfAbsent(uuid, flight);
+        if (running != null) {
+            return await(uuid, running);
+        }
+        try {
+            final SearchSavedQueryResults results = compute(uuid, variables);
+            flight.complete(results);
+            return results;
+        }
+        catch (MetadataRepositoryException exception) {
+            flight.completeExceptionally(exception);
+            throw exception;
+        }
+        finally {
+            inFlight.remove(uuid, flight);
+            if (!flight.isDone()) {
+                flight.completeExceptionally(new MetadataRepositoryException(format(MSG_FAILED, uuid)));
+            }
+        }
+    }
+
+    private SearchSavedQueryResults await(String uuid, CompletableFuture<SearchSavedQueryResults> running)
+            throws MetadataRepositoryException {
+        try {
+            return running.join();
+        }
+        catch (CompletionException exception) {
+            if (exception.getCause() instanceof MetadataRepositoryException cause) {
+                throw cause;
+            }
+            throw new MetadataRepositoryException(format(MSG_FAILED, uuid));
+        }
+    }
+
+    private SearchSavedQueryResults compute(String uuid, SearchQueryVariablesDTO variables)
+            throws MetadataRepositoryException {
+        // Epoch and version are taken before the evaluation, a concurrent write makes the results
+        // stale and a concurrent change of the saved query discards them
+        final long epoch = metadataWriteEpoch.get();
+        final long version = versions.getOrDefault(uuid, 0L);
+        final SearchResultPage page = searchService.searchAll(variables);
+        final SearchSavedQueryResults results = new SearchSavedQueryResults(
+                List.copyOf(page.getResults()),
+                page.isTruncated(),
+                epoch,
+                Instant.now()
+        );
+        materialized.compute(uuid, (key, current) ->
+                queries.containsKey(key) && versions.getOrDefault(key, 0L) == version ? results : current);
+        return results;
+    }
+}
@@ -60,6 +60,9 @@ public class SearchSavedQueryService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SearchSavedQueryMaterializer searchSavedQueryMaterializer;
+
     public List<SearchSavedQueryDTO> getAll() {
         final Optional<User> optionalUser = currentUserService.getCurrentUser();
         final Map<String, UserDTO> userMap =
@@ -97,6 +100,7 @@ public class SearchSavedQueryService {
             throw new ForbiddenException(MSG_CANNOT_UPDATE);
         }
         repository.delete(searchSavedQuery);
+        searchSavedQueryMaterializer.remove(uuid);
         return true;
     }
 
@@ -105,6 +109,7 @@ public class SearchSavedQueryService {
         final SearchSavedQuery searchSavedQuery = repository.save(
                 mapper.fromChangeDTO(reqDto, userDto)
         );
+        searchSavedQueryMaterializer.update(searchSavedQuery);
         return mapper.toDTO(searchSavedQuery, userDto);
     }
 
@@ -121,6 +126,7 @@ public class SearchSavedQueryService {
         final SearchSavedQuery updatedQuery = repository.save(
                 mapper.fromChangeDTO(searchSavedQuery, reqDto)
         );
+        searchSavedQueryMaterializer.update(updatedQuery);
         if (updatedQuery.getUserUuid() == null) {
             return Optional.of(mapper.toDTO(updatedQuery, null));
         }
@@ -30,6 +30,8 @@ import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static nl.dtls.fairdatapoint.config.CacheConfig.SETTINGS_CACHE;
 
@@ -44,6 +46,10 @@ public class SettingsCache {
     @Autowired
     private SettingsRepository settingsRepository;
 
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Instant modified = Instant.now();
+
     @PostConstruct
     public void updateCachedSettings() {
         updateCachedSettings(settingsRepository.findFirstBy().orElse(Settings.getDefault()));
@@ -58,12 +64,24 @@ public class SettingsCache {
 
         // Add to cache
         cache.put(SETTINGS_KEY, settings);
+
+        // Change validators of responses depending on settings
+        modified = Instant.now();
+        version.incrementAndGet();
     }
 
     public Settings getOrDefaults() {
         return cache().get(SETTINGS_KEY, Settings.class);
     }
 
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Instant getModified() {
+        return modified;
+    }
+
     private Cache cache() {
         return cacheManager.getCache(SETTINGS_CACHE);
     }
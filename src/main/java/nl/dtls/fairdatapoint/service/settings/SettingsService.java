@@ -28,6 +28,7 @@ import nl.dtls.fairdatapoint.database.mongo.repository.SettingsRepository;
 import nl.dtls.fairdatapoint.entity.settings.Settings;
 import nl.dtls.fairdatapoint.entity.settings.SettingsSearchFilter;
 import nl.dtls.fairdatapoint.service.search.SearchFilterCache;
+import nl.dtls.fairdatapoint.service.search.SearchResultCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -49,6 +50,9 @@ public class SettingsService {
     @Autowired
     private SearchFilterCache searchFilterCache;
 
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     public Settings getOrDefaults() {
         return settingsCache.getOrDefaults();
     }
@@ -62,6 +66,8 @@ public class SettingsService {
         final Settings newSettings = repository.save(mapper.fromUpdateDTO(dto, getOrDefaults()));
         handleSearchFiltersChange(oldSettings, newSettings);
         settingsCache.updateCachedSettings(newSettings);
+        // Cached search results include the configured search filters
+        searchResultCache.clearCache();
         return mapper.toDTO(newSettings);
     }
 
@@ -24,6 +24,7 @@ package nl.dtls.fairdatapoint.util;
 
 import nl.dtls.fairdatapoint.entity.exception.ValidationException;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
@@ -39,9 +40,12 @@ import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import static nl.dtls.fairdatapoint.entity.metadata.MetadataSetter.setRdfTypes;
@@ -60,6 +64,9 @@ public class RdfIOUtil {
 
     private static final String MSG_EXC_HANDLER = "Unable to read RDF (handler exception)";
 
+    private static final List<Namespace> DEFAULT_NAMESPACES =
+            List.of(DCTERMS.NS, DCAT.NS, FOAF.NS, XMLSchema.NS, LDP.NS);
+
     public static Model changeBaseUri(Model oldModel, String newBaseUri, List<String> rdfTypes) {
         // - get baseUri
         final Resource oldBaseUri = rdfTypes
@@ -130,14 +137,8 @@ public class RdfIOUtil {
     }
 
     public static String write(Model model, RDFFormat format) {
-        model.setNamespace(DCTERMS.NS);
-        model.setNamespace(DCAT.NS);
-        model.setNamespace(FOAF.NS);
-        model.setNamespace(XMLSchema.NS);
-        model.setNamespace(LDP.NS);
-
         try (StringWriter out = new StringWriter()) {
-            Rio.write(model, out, format, getWriterConfig());
+            write(model, Rio.createWriter(format, out));
             return out.toString();
         }
         catch (IOException exception) {
@@ -145,6 +146,23 @@ public class RdfIOUtil {
         }
     }
 
+    public static void write(Model model, RDFFormat format, OutputStream out) {
+        write(model, Rio.createWriter(format, out));
+    }
+
+    private static void write(Model model, RDFWriter writer) {
+        // Default namespaces are added to the output only, the model itself can be shared
+        final Map<String, String> namespaces = new LinkedHashMap<>();
+        model.getNamespaces().forEach(namespace -> namespaces.put(namespace.getPrefix(), namespace.getName()));
+        DEFAULT_NAMESPACES.forEach(namespace -> namespaces.put(namespace.getPrefix(), namespace.getName()));
+
+        writer.setWriterConfig(getWriterConfig());
+        writer.startRDF();
+        namespaces.forEach(writer::handleNamespace);
+        model.forEach(writer::handleStatement);
+        writer.endRDF();
+    }
+
     public static WriterConfig getWriterConfig() {
         final WriterConfig config = new WriterConfig();
         config.set(BasicWriterSettings.INLINE_BLANK_NODES, true);
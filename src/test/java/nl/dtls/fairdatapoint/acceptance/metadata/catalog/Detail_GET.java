@@ -23,8 +23,11 @@
 package nl.dtls.fairdatapoint.acceptance.metadata.catalog;
 
 import nl.dtls.fairdatapoint.WebIntegrationTest;
+import nl.dtls.fairdatapoint.service.resource.ResourceDefinitionCache;
+import nl.dtls.fairdatapoint.service.settings.SettingsCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -38,10 +41,18 @@ import static nl.dtls.fairdatapoint.acceptance.common.NotFoundTest.createUserNot
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
 
 @DisplayName("GET /catalog/:catalogId")
 public class Detail_GET extends WebIntegrationTest {
 
+    @Autowired
+    private ResourceDefinitionCache resourceDefinitionCache;
+
+    @Autowired
+    private SettingsCache settingsCache;
+
     private URI url(String id) {
         return URI.create(format("/catalog/%s", id));
     }
@@ -64,6 +75,108 @@ public class Detail_GET extends WebIntegrationTest {
         assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
     }
 
+    @Test
+    @DisplayName("HTTP 304: Not Modified (ETag)")
+    public void res304_eTag() {
+        // GIVEN:
+        RequestEntity<Void> firstRequest = RequestEntity
+                .get(url("catalog-1"))
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .build();
+        ParameterizedTypeReference<String> responseType = new ParameterizedTypeReference<>() {
+        };
+        ResponseEntity<String> firstResult = client.exchange(firstRequest, responseType);
+        String eTag = firstResult.getHeaders().getETag();
+        RequestEntity<Void> request = RequestEntity
+                .get(url("catalog-1"))
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .build();
+
+        // WHEN:
+        ResponseEntity<String> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(firstResult.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(eTag, is(notNullValue()));
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.NOT_MODIFIED)));
+        assertThat(result.getBody(), is(nullValue()));
+    }
+
+    @Test
+    @DisplayName("HTTP 200: Modified (ETag of other representation)")
+    public void res200_eTagOtherFormat() {
+        // GIVEN:
+        RequestEntity<Void> firstRequest = RequestEntity
+                .get(url("catalog-1"))
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .build();
+        ParameterizedTypeReference<String> responseType = new ParameterizedTypeReference<>() {
+        };
+        String eTag = client.exchange(firstRequest, responseType).getHeaders().getETag();
+        RequestEntity<Void> request = RequestEntity
+                .get(url("catalog-1"))
+                .header(HttpHeaders.ACCEPT, "application/ld+json")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .build();
+
+        // WHEN:
+        ResponseEntity<String> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+    }
+
+    @Test
+    @DisplayName("HTTP 200: Modified (ETag before resource definitions changed)")
+    public void res200_eTagResourceDefinitionsChanged() {
+        // GIVEN:
+        RequestEntity<Void> firstRequest = RequestEntity
+                .get(url("catalog-1"))
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .build();
+        ParameterizedTypeReference<String> responseType = new ParameterizedTypeReference<>() {
+        };
+        String eTag = client.exchange(firstRequest, responseType).getHeaders().getETag();
+        resourceDefinitionCache.computeCache();
+        RequestEntity<Void> request = RequestEntity
+                .get(url("catalog-1"))
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .build();
+
+        // WHEN:
+        ResponseEntity<String> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+    }
+
+    @Test
+    @DisplayName("HTTP 200: Modified (ETag before settings changed)")
+    public void res200_eTagSettingsChanged() {
+        // GIVEN:
+        RequestEntity<Void> firstRequest = RequestEntity
+                .get(url("catalog-1"))
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .build();
+        ParameterizedTypeReference<String> responseType = new ParameterizedTypeReference<>() {
+        };
+        String eTag = client.exchange(firstRequest, responseType).getHeaders().getETag();
+        settingsCache.updateCachedSettings();
+        RequestEntity<Void> request = RequestEntity
+                .get(url("catalog-1"))
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .build();
+
+        // WHEN:
+        ResponseEntity<String> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+    }
+
     @Test
     @DisplayName("HTTP 200: Draft (User is logged in)")
     public void res200_draft() {
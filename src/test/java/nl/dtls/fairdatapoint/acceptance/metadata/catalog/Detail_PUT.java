@@ -50,6 +50,8 @@ import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.l;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.StringContains.containsString;
 
 @DisplayName("PUT /catalog/:catalogId")
 public class Detail_PUT extends WebIntegrationTest {
@@ -103,6 +105,28 @@ public class Detail_PUT extends WebIntegrationTest {
         assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
     }
 
+    @Test
+    @DisplayName("HTTP 200: Subsequent GET returns updated metadata")
+    public void res200_getAfterUpdate() {
+        // GIVEN:
+        RequestEntity<Void> getRequest = RequestEntity
+                .get(url("catalog-1"))
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .build();
+        ParameterizedTypeReference<String> responseType = new ParameterizedTypeReference<>() {
+        };
+        ResponseEntity<String> resultBefore = client.exchange(getRequest, responseType);
+
+        // WHEN:
+        create_res200(ALBERT_TOKEN);
+        ResponseEntity<String> resultAfter = client.exchange(getRequest, responseType);
+
+        // THEN:
+        assertThat(resultBefore.getBody(), not(containsString("EDITED: Some title")));
+        assertThat(resultAfter.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(resultAfter.getBody(), containsString("EDITED: Some title"));
+    }
+
     @Test
     @DisplayName("HTTP 403: Anonymous access")
     public void res403_anonymous() {
@@ -32,16 +32,22 @@ import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 
 import java.net.URI;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static java.lang.String.format;
 import static nl.dtls.fairdatapoint.acceptance.common.NotFoundTest.createUserNotFoundTestGetRDF;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.StringContains.containsString;
 
 @DisplayName("GET /catalog/:catalogId/page/dataset")
 public class Detail_Page_GET extends WebIntegrationTest {
 
+    private static final Pattern CURSOR_PATTERN = Pattern.compile("cursor=([^&>]+)[^>]*>; rel=\"after\"");
+
     private URI url(String id) {
         return URI.create(format("/catalog/%s/page/dataset", id));
     }
@@ -64,6 +70,54 @@ public class Detail_Page_GET extends WebIntegrationTest {
         assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
     }
 
+    @Test
+    @DisplayName("HTTP 200: Next page by cursor")
+    public void res200_cursor() {
+        // GIVEN:
+        RequestEntity<Void> firstRequest = RequestEntity
+                .get(URI.create(format("%s?size=1", url("catalog-1"))))
+                .header(HttpHeaders.AUTHORIZATION, ALBERT_TOKEN)
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .build();
+        ParameterizedTypeReference<String> responseType = new ParameterizedTypeReference<>() {
+        };
+        ResponseEntity<String> firstResult = client.exchange(firstRequest, responseType);
+        Matcher matcher = CURSOR_PATTERN.matcher(firstResult.getHeaders().getFirst("Link"));
+        assertThat(matcher.find(), is(true));
+        RequestEntity<Void> request = RequestEntity
+                .get(URI.create(format("%s?size=1&cursor=%s", url("catalog-1"), matcher.group(1))))
+                .header(HttpHeaders.AUTHORIZATION, ALBERT_TOKEN)
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .build();
+
+        // WHEN:
+        ResponseEntity<String> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(result.getBody(), is(not(equalTo(firstResult.getBody()))));
+        assertThat(result.getHeaders().getFirst("Link"), containsString("rel=\"first\""));
+        assertThat(result.getHeaders().getFirst("Link"), not(containsString("page=")));
+    }
+
+    @Test
+    @DisplayName("HTTP 400: Invalid cursor")
+    public void res400_cursor() {
+        // GIVEN:
+        RequestEntity<Void> request = RequestEntity
+                .get(URI.create(format("%s?cursor=invalid", url("catalog-1"))))
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .build();
+        ParameterizedTypeReference<String> responseType = new ParameterizedTypeReference<>() {
+        };
+
+        // WHEN:
+        ResponseEntity<String> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.BAD_REQUEST)));
+    }
+
     @Test
     @DisplayName("HTTP 200: Draft (User is logged in)")
     public void res200_draft() {
@@ -25,6 +25,7 @@ package nl.dtls.fairdatapoint.acceptance.metadata.dataset.meta;
 import nl.dtls.fairdatapoint.WebIntegrationTest;
 import nl.dtls.fairdatapoint.api.dto.member.MemberDTO;
 import nl.dtls.fairdatapoint.api.dto.metadata.MetaDTO;
+import nl.dtls.fairdatapoint.api.dto.metadata.MetaPathDTO;
 import nl.dtls.fairdatapoint.api.dto.metadata.MetaStateDTO;
 import nl.dtls.fairdatapoint.database.mongo.migration.development.membership.data.MembershipFixtures;
 import nl.dtls.fairdatapoint.database.mongo.migration.development.metadata.data.MetadataFixtures;
@@ -49,6 +50,7 @@ import static nl.dtls.fairdatapoint.acceptance.metadata.Common.assertEmptyState;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
 
 @DisplayName("GET /dataset/:datasetId/meta")
 public class List_GET extends WebIntegrationTest {
@@ -99,6 +101,32 @@ public class List_GET extends WebIntegrationTest {
         ))));
     }
 
+    @Test
+    @DisplayName("HTTP 200: Path to repository")
+    public void res200_path() {
+        // GIVEN:
+        RequestEntity<Void> request = RequestEntity
+                .get(url("dataset-1"))
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .build();
+        ParameterizedTypeReference<MetaDTO> responseType = new ParameterizedTypeReference<>() {
+        };
+        String datasetUri = metadataFixtures.dataset1().getUri();
+        String catalogUri = metadataFixtures.catalog1().getUri();
+        String repositoryUri = metadataFixtures.fdpMetadata().getUri();
+
+        // WHEN:
+        ResponseEntity<MetaDTO> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        Map<String, MetaPathDTO> path = result.getBody().getPath();
+        assertThat(path.size(), is(equalTo(3)));
+        assertThat(path.get(datasetUri).getParent(), is(equalTo(catalogUri)));
+        assertThat(path.get(catalogUri).getParent(), is(equalTo(repositoryUri)));
+        assertThat(path.get(repositoryUri).getParent(), is(nullValue()));
+    }
+
     @Test
     @DisplayName("HTTP 200: No user")
     public void res200_no_user() {
@@ -0,0 +1,85 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.acceptance.search;
+
+import nl.dtls.fairdatapoint.WebIntegrationTest;
+import nl.dtls.fairdatapoint.api.dto.search.SearchFilterDTO;
+import nl.dtls.fairdatapoint.api.dto.search.SearchFilterItemDTO;
+import nl.dtls.fairdatapoint.api.dto.search.SearchQueryDTO;
+import org.eclipse.rdf4j.model.vocabulary.DCAT;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+@DisplayName("POST /search/facets")
+public class Facets_POST extends WebIntegrationTest {
+
+    private URI url() {
+        return URI.create("/search/facets");
+    }
+
+    @Test
+    @DisplayName("HTTP 200")
+    public void res200() {
+        // GIVEN: Prepare request
+        RequestEntity<SearchQueryDTO> request = RequestEntity
+                .post(url())
+                .accept(MediaType.APPLICATION_JSON)
+                .body(new SearchQueryDTO("Cat Dataset"));
+        ParameterizedTypeReference<List<SearchFilterDTO>> responseType = new ParameterizedTypeReference<>() {
+        };
+
+        // WHEN:
+        ResponseEntity<List<SearchFilterDTO>> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        SearchFilterDTO typeFacet = result.getBody()
+                .stream()
+                .filter(facet -> facet.getPredicate().equals(RDF.TYPE.stringValue()))
+                .findFirst()
+                .get();
+        assertThat(countOf(typeFacet, DCAT.DATASET.stringValue()), is(equalTo(1L)));
+        assertThat(countOf(typeFacet, DCAT.CATALOG.stringValue()), is(equalTo(0L)));
+    }
+
+    private Long countOf(SearchFilterDTO facet, String value) {
+        return facet
+                .getValues()
+                .stream()
+                .filter(item -> item.getValue().equals(value))
+                .map(SearchFilterItemDTO::getCount)
+                .findFirst()
+                .orElse(0L);
+    }
+
+}
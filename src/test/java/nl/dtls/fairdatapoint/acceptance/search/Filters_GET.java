@@ -24,9 +24,11 @@ package nl.dtls.fairdatapoint.acceptance.search;
 
 import nl.dtls.fairdatapoint.WebIntegrationTest;
 import nl.dtls.fairdatapoint.api.dto.search.SearchFilterDTO;
+import nl.dtls.fairdatapoint.api.dto.search.SearchFilterItemDTO;
 import nl.dtls.fairdatapoint.api.dto.search.SearchQueryDTO;
 import nl.dtls.fairdatapoint.api.dto.search.SearchResultDTO;
 import nl.dtls.fairdatapoint.database.mongo.repository.SettingsRepository;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +39,8 @@ import java.net.URI;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
 
@@ -71,4 +75,43 @@ public class Filters_GET extends WebIntegrationTest {
         assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
     }
 
+    @Test
+    @DisplayName("HTTP 200: Values from records are counted and updated on delete")
+    public void res200_counts() {
+        // GIVEN: Prepare request
+        RequestEntity<Void> request = RequestEntity
+                .get(url())
+                .accept(MediaType.APPLICATION_JSON)
+                .build();
+        ParameterizedTypeReference<List<SearchFilterDTO>> responseType = new ParameterizedTypeReference<>() {
+        };
+        long countBefore = countVersions(client.exchange(request, responseType).getBody());
+
+        // AND: Delete dataset (with its distributions)
+        RequestEntity<Void> deleteRequest = RequestEntity
+                .delete(URI.create("/dataset/dataset-1"))
+                .header(HttpHeaders.AUTHORIZATION, ADMIN_TOKEN)
+                .header(HttpHeaders.ACCEPT, "text/turtle")
+                .build();
+        client.exchange(deleteRequest, new ParameterizedTypeReference<String>() {
+        });
+
+        // WHEN:
+        ResponseEntity<List<SearchFilterDTO>> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(countBefore, is(greaterThan(0L)));
+        assertThat(countVersions(result.getBody()), is(lessThan(countBefore)));
+    }
+
+    private long countVersions(List<SearchFilterDTO> filters) {
+        return filters
+                .stream()
+                .filter(filter -> filter.getPredicate().equals(DCTERMS.HAS_VERSION.stringValue()))
+                .flatMap(filter -> filter.getValues().stream())
+                .mapToLong(SearchFilterItemDTO::getCount)
+                .sum();
+    }
+
 }
\ No newline at end of file
@@ -23,8 +23,10 @@
 package nl.dtls.fairdatapoint.acceptance.search;
 
 import nl.dtls.fairdatapoint.WebIntegrationTest;
+import nl.dtls.fairdatapoint.api.dto.metadata.MetaStateChangeDTO;
 import nl.dtls.fairdatapoint.api.dto.search.SearchQueryDTO;
 import nl.dtls.fairdatapoint.api.dto.search.SearchResultDTO;
+import nl.dtls.fairdatapoint.entity.metadata.MetadataState;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.ParameterizedTypeReference;
@@ -32,14 +34,20 @@ import org.springframework.http.*;
 
 import java.net.URI;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import static java.lang.String.format;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
 
 @DisplayName("POST /search")
 public class List_POST extends WebIntegrationTest {
 
+    private static final Pattern CURSOR_PATTERN = Pattern.compile("cursor=([^&>]+)[^>]*>; rel=\"after\"");
+
     private URI url() {
         return URI.create("/search");
     }
@@ -71,4 +79,132 @@ public class List_POST extends WebIntegrationTest {
         assertThat(result.getBody().size(), is(equalTo(1)));
     }
 
+    @Test
+    @DisplayName("HTTP 200: part of a word")
+    public void res200_partOfWord() {
+        // GIVEN: Prepare data
+        SearchQueryDTO reqDto = reqDto("ATALO");
+
+        // AND: Prepare request
+        RequestEntity<SearchQueryDTO> request = RequestEntity
+                .post(url())
+                .header(HttpHeaders.AUTHORIZATION, ADMIN_TOKEN)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(reqDto);
+        ParameterizedTypeReference<List<SearchResultDTO>> responseType = new ParameterizedTypeReference<>() {
+        };
+
+        // WHEN:
+        ResponseEntity<List<SearchResultDTO>> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(result.getBody().size(), is(equalTo(1)));
+    }
+
+    @Test
+    @DisplayName("HTTP 200: infix of a word")
+    public void res200_infix() {
+        // GIVEN: Prepare data
+        SearchQueryDTO reqDto = reqDto("atalog");
+
+        // AND: Prepare request
+        RequestEntity<SearchQueryDTO> request = RequestEntity
+                .post(url())
+                .header(HttpHeaders.AUTHORIZATION, ADMIN_TOKEN)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(reqDto);
+        ParameterizedTypeReference<List<SearchResultDTO>> responseType = new ParameterizedTypeReference<>() {
+        };
+
+        // WHEN:
+        ResponseEntity<List<SearchResultDTO>> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(result.getBody().size(), is(equalTo(1)));
+    }
+
+    @Test
+    @DisplayName("HTTP 200: Next page by cursor")
+    public void res200_cursor() {
+        // GIVEN: Prepare data
+        SearchQueryDTO reqDto = reqDto("data");
+        ParameterizedTypeReference<List<SearchResultDTO>> responseType = new ParameterizedTypeReference<>() {
+        };
+        RequestEntity<SearchQueryDTO> firstRequest = RequestEntity
+                .post(URI.create(format("%s?limit=1", url())))
+                .header(HttpHeaders.AUTHORIZATION, ADMIN_TOKEN)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(reqDto);
+        ResponseEntity<List<SearchResultDTO>> firstResult = client.exchange(firstRequest, responseType);
+        assertThat(firstResult.getBody().size(), is(equalTo(1)));
+        Matcher matcher = CURSOR_PATTERN.matcher(firstResult.getHeaders().getFirst(HttpHeaders.LINK));
+        assertThat(matcher.find(), is(true));
+
+        // AND: Prepare request
+        RequestEntity<SearchQueryDTO> request = RequestEntity
+                .post(URI.create(format("%s?limit=1&cursor=%s", url(), matcher.group(1))))
+                .header(HttpHeaders.AUTHORIZATION, ADMIN_TOKEN)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(reqDto);
+
+        // WHEN:
+        ResponseEntity<List<SearchResultDTO>> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(result.getBody().size(), is(equalTo(1)));
+        assertThat(result.getBody().get(0).getUri(), is(not(equalTo(firstResult.getBody().get(0).getUri()))));
+    }
+
+    @Test
+    @DisplayName("HTTP 400: Invalid limit")
+    public void res400_limit() {
+        // GIVEN: Prepare request
+        RequestEntity<SearchQueryDTO> request = RequestEntity
+                .post(URI.create(format("%s?limit=0", url())))
+                .header(HttpHeaders.AUTHORIZATION, ADMIN_TOKEN)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(reqDto("data"));
+        ParameterizedTypeReference<?> responseType = new ParameterizedTypeReference<>() {
+        };
+
+        // WHEN:
+        ResponseEntity<?> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.BAD_REQUEST)));
+    }
+
+    @Test
+    @DisplayName("HTTP 200: Cached results are refreshed after publishing")
+    public void res200_afterPublish() {
+        // GIVEN: Prepare request
+        RequestEntity<SearchQueryDTO> request = RequestEntity
+                .post(url())
+                .header(HttpHeaders.AUTHORIZATION, ADMIN_TOKEN)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(reqDto("Tech Catalog"));
+        ParameterizedTypeReference<List<SearchResultDTO>> responseType = new ParameterizedTypeReference<>() {
+        };
+        int draftCount = client.exchange(request, responseType).getBody().size();
+
+        // AND: Publish draft catalog
+        RequestEntity<MetaStateChangeDTO> publishRequest = RequestEntity
+                .put(URI.create("/catalog/catalog-2/meta/state"))
+                .header(HttpHeaders.AUTHORIZATION, ADMIN_TOKEN)
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .body(new MetaStateChangeDTO(MetadataState.PUBLISHED));
+        client.exchange(publishRequest, new ParameterizedTypeReference<MetaStateChangeDTO>() {
+        });
+
+        // WHEN:
+        ResponseEntity<List<SearchResultDTO>> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(result.getBody().size(), is(equalTo(draftCount + 1)));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.acceptance.search;
+
+import nl.dtls.fairdatapoint.WebIntegrationTest;
+import nl.dtls.fairdatapoint.api.dto.search.SearchStatsDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+
+import java.net.URI;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+@DisplayName("GET /search/stats")
+public class Stats_GET extends WebIntegrationTest {
+
+    private URI url() {
+        return URI.create("/search/stats");
+    }
+
+    @Test
+    @DisplayName("HTTP 200: anonymous user gets published records only")
+    public void res200_anonymous() {
+        // GIVEN: Prepare request
+        RequestEntity<Void> request = RequestEntity
+                .get(url())
+                .accept(MediaType.APPLICATION_JSON)
+                .build();
+        ParameterizedTypeReference<SearchStatsDTO> responseType = new ParameterizedTypeReference<>() {
+        };
+
+        // WHEN:
+        ResponseEntity<SearchStatsDTO> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(result.getBody().getDocumentCount(), is(equalTo(4L)));
+        assertThat(result.getBody().getDocumentCountByUrlPrefix(), is(equalTo(Map.of(
+                "", 1L,
+                "catalog", 1L,
+                "dataset", 1L,
+                "distribution", 1L
+        ))));
+    }
+
+    @Test
+    @DisplayName("HTTP 200: signed-in user gets drafts as well")
+    public void res200_authenticated() {
+        // GIVEN: Prepare request
+        RequestEntity<Void> request = RequestEntity
+                .get(url())
+                .header(HttpHeaders.AUTHORIZATION, ALBERT_TOKEN)
+                .accept(MediaType.APPLICATION_JSON)
+                .build();
+        ParameterizedTypeReference<SearchStatsDTO> responseType = new ParameterizedTypeReference<>() {
+        };
+
+        // WHEN:
+        ResponseEntity<SearchStatsDTO> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(result.getBody().getDocumentCount(), is(equalTo(7L)));
+        assertThat(result.getBody().getDocumentCountByUrlPrefix(), is(equalTo(Map.of(
+                "", 1L,
+                "catalog", 2L,
+                "dataset", 2L,
+                "distribution", 2L
+        ))));
+    }
+
+}
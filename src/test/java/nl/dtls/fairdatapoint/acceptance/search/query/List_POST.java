@@ -112,4 +112,27 @@ public class List_POST extends WebIntegrationTest {
         assertThat(result.getStatusCode(), is(equalTo(HttpStatus.BAD_REQUEST)));
     }
 
+    @Test
+    @DisplayName("HTTP 200: Limited page")
+    public void res200_limit() {
+        // GIVEN: Prepare data
+        SearchQueryVariablesDTO reqDto = reqDto("catalog");
+
+        // AND: Prepare request
+        RequestEntity<SearchQueryVariablesDTO> request = RequestEntity
+                .post(URI.create(format("%s?limit=1", url())))
+                .accept(MediaType.APPLICATION_JSON)
+                .body(reqDto);
+        ParameterizedTypeReference<List<SearchResultDTO>> responseType = new ParameterizedTypeReference<>() {
+        };
+
+        // WHEN:
+        ResponseEntity<List<SearchResultDTO>> result = client.exchange(request, responseType);
+
+        // THEN:
+        assertThat(result.getStatusCode(), is(equalTo(HttpStatus.OK)));
+        assertThat(result.getBody().size(), is(equalTo(1)));
+        assertThat(result.getHeaders().getFirst(HttpHeaders.LINK).contains("rel=\"after\""), is(true));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.ontology;
+
+import nl.dtls.fairdatapoint.entity.ontology.TermAssociation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.hamcrest.number.OrderingComparison.greaterThanOrEqualTo;
+import static org.hamcrest.number.OrderingComparison.lessThan;
+
+public class OntologySearcherAssociationsTest {
+
+    private static final String ONTOLOGY_IRI = "http://example.org/ontology";
+
+    private static final double DELTA = 1e-9;
+
+    private OntologySearcher searcher;
+
+    private OWLOntology ontology;
+
+    private URL url;
+
+    @BeforeEach
+    public void setup() throws OWLOntologyCreationException, MalformedURLException {
+        searcher = new OntologySearcher();
+        url = new URL(ONTOLOGY_IRI);
+        ontology = ontology(
+                "heart disease",
+                "heart disease failure",
+                "lung tumor tumor",
+                "brain",
+                "kidney"
+        );
+    }
+
+    @Test
+    public void findAssociationsSkipsSelfPairs() {
+        // WHEN:
+        List<TermAssociation> associations = findAssociations();
+
+        // THEN:
+        assertThat(associations.stream().anyMatch(a -> a.getKey().equals(a.getValue())), is(equalTo(false)));
+        assertThat(associations.stream().anyMatch(a -> a.getKey().equals("tumor")), is(equalTo(true)));
+    }
+
+    @Test
+    public void findAssociationsMergesPairsOverClasses() {
+        // WHEN:
+        List<TermAssociation> associations = findAssociations();
+
+        // THEN: one association per pair, with the relevance of both classes added up
+        List<TermAssociation> pair = associations.stream()
+                .filter(a -> a.getKey().equals("heart") && a.getValue().equals("disease"))
+                .toList();
+        double idf = Math.log(5.0 / 2.0);
+        assertThat(pair.size(), is(equalTo(1)));
+        assertThat(pair.get(0).getRelevance(),
+                is(closeTo((0.5 * 0.5 + 1.0 / 3.0 * 1.0 / 3.0) * idf * idf, DELTA)));
+    }
+
+    @Test
+    public void findAssociationsSkipsBelowMinRelevance() {
+        // GIVEN:
+        List<TermAssociation> all = findAssociations();
+        double minRelevance = all.stream().mapToDouble(TermAssociation::getRelevance).average().orElseThrow();
+        searcher.setIndexMinRelevance(minRelevance);
+
+        // WHEN:
+        List<TermAssociation> associations = findAssociations();
+
+        // THEN:
+        assertThat(associations.size(), is(lessThan(all.size())));
+        associations.forEach(a -> assertThat(a.getRelevance(), is(greaterThanOrEqualTo(minRelevance))));
+    }
+
+    @Test
+    public void findAssociationsKeepsTopAssociationsPerTerm() {
+        // GIVEN:
+        Map<String, Double> maxRelevance = findAssociations().stream()
+                .collect(Collectors.toMap(TermAssociation::getKey, TermAssociation::getRelevance, Math::max));
+        searcher.setIndexTopAssociations(1);
+
+        // WHEN:
+        List<TermAssociation> associations = findAssociations();
+
+        // THEN:
+        assertThat(associations.size(), is(equalTo(maxRelevance.size())));
+        associations.forEach(a ->
+                assertThat(a.getRelevance(), is(closeTo(maxRelevance.get(a.getKey()), DELTA))));
+    }
+
+    private List<TermAssociation> findAssociations() {
+        List<TermAssociation> associations = new ArrayList<>();
+        long count = searcher.findAssociations(ontology, url, associations::add);
+        assertThat(count, is(equalTo((long) associations.size())));
+        return associations;
+    }
+
+    private static OWLOntology ontology(String... labels) throws OWLOntologyCreationException {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology result = manager.createOntology(IRI.create(ONTOLOGY_IRI));
+        for (int index = 0; index < labels.length; index++) {
+            OWLClass cls = factory.getOWLClass(IRI.create(ONTOLOGY_IRI + "#class" + index));
+            result.add(factory.getOWLDeclarationAxiom(cls));
+            result.add(factory.getOWLAnnotationAssertionAxiom(
+                    factory.getRDFSLabel(), cls.getIRI(), factory.getOWLLiteral(labels[index])));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.ontology;
+
+import nl.dtls.fairdatapoint.entity.ontology.IndexedOntology;
+import nl.dtls.fairdatapoint.entity.ontology.TermAssociation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class TermAssociationGraphTest {
+
+    private static final Instant INDEXED_AT = Instant.ofEpochMilli(1700000000000L);
+
+    private TermAssociationGraph graph() throws MalformedURLException {
+        final URL url = new URL("http://example.org/ontology.owl");
+        return TermAssociationGraph.build(List.of(new IndexedOntology(null, url, 4, 0.0, 0, INDEXED_AT)), List.of(
+                new TermAssociation(null, "disease", "tumor", 0.5, url),
+                new TermAssociation(null, "disease", "syndrome", 3.0, url),
+                new TermAssociation(null, "cell", "tissue", 1.0, url),
+                new TermAssociation(null, "disease", "disorder", 2.0, url)
+        ).iterator());
+    }
+
+    @Test
+    public void getAssociationsOrdersByRelevance() throws MalformedURLException {
+        // WHEN:
+        List<TermAssociation> associations = graph().getAssociations("disease", 0.0);
+
+        // THEN:
+        assertThat(associations.stream().map(TermAssociation::getValue).toList(),
+                is(equalTo(List.of("syndrome", "disorder", "tumor"))));
+    }
+
+    @Test
+    public void getAssociationsSkipsBelowThreshold() throws MalformedURLException {
+        // WHEN:
+        List<TermAssociation> associations = graph().getAssociations("disease", 2.0);
+
+        // THEN:
+        assertThat(associations.size(), is(equalTo(1)));
+        assertThat(associations.get(0).getValue(), is(equalTo("syndrome")));
+    }
+
+    @Test
+    public void getAssociationsOfUnknownTerm() throws MalformedURLException {
+        // THEN:
+        assertThat(graph().getAssociations("unknown", 0.0).size(), is(equalTo(0)));
+        assertThat(graph().getAssociationCount(), is(equalTo(4)));
+    }
+
+    @Test
+    public void openReadsWrittenSnapshot(@TempDir Path directory) throws IOException {
+        // GIVEN:
+        Path path = directory.resolve("term-associations.bin");
+        graph().writeTo(path);
+
+        // WHEN:
+        Optional<TermAssociationGraph> snapshot = TermAssociationGraph.open(path);
+
+        // THEN:
+        assertThat(snapshot.isPresent(), is(equalTo(true)));
+        assertThat(snapshot.get().getUrls(), is(equalTo(graph().getUrls())));
+        assertThat(snapshot.get().getAssociations("disease", 1.0).size(), is(equalTo(2)));
+        assertThat(snapshot.get().getIndexedAt(),
+                is(equalTo(Map.of("http://example.org/ontology.owl", INDEXED_AT))));
+    }
+
+    @Test
+    public void openRejectsCorruptedSnapshot(@TempDir Path directory) throws IOException {
+        // GIVEN:
+        Path path = directory.resolve("term-associations.bin");
+        graph().writeTo(path);
+        byte[] content = Files.readAllBytes(path);
+        content[content.length - 1] ^= 1;
+        Files.write(path, content);
+
+        // THEN:
+        assertThat(TermAssociationGraph.open(path).isPresent(), is(equalTo(false)));
+    }
+}
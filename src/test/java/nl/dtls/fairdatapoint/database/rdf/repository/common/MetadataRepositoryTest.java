@@ -39,13 +39,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static nl.dtls.fairdatapoint.entity.metadata.MetadataGetter.getLanguage;
 import static nl.dtls.fairdatapoint.entity.metadata.MetadataGetter.getUri;
 import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.i;
+import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.l;
+import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.s;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class MetadataRepositoryTest extends WebIntegrationTest {
 
@@ -55,6 +60,9 @@ public class MetadataRepositoryTest extends WebIntegrationTest {
     @Autowired
     private TestRdfMetadataFixtures testMetadataFixtures;
 
+    @Autowired
+    private MetadataUnitOfWork metadataUnitOfWork;
+
     @Test
     public void findWorks() throws Exception {
         // GIVEN:
@@ -80,6 +88,85 @@ public class MetadataRepositoryTest extends WebIntegrationTest {
         assertThat(result.size(), is(equalTo(0)));
     }
 
+    @Test
+    public void findBatchWorks() throws Exception {
+        // GIVEN:
+        Model catalog1 = testMetadataFixtures.catalog1();
+        Model catalog2 = testMetadataFixtures.catalog2();
+        IRI nonExisting = i("http://localhost/non-existing");
+
+        // WHEN:
+        Map<IRI, List<Statement>> result =
+                metadataRepository.find(List.of(getUri(catalog1), getUri(catalog2), nonExisting));
+
+        // THEN:
+        assertThat(result.get(getUri(catalog1)).size(), is(equalTo(catalog1.size())));
+        assertThat(result.get(getUri(catalog2)).size(), is(equalTo(catalog2.size())));
+        assertThat(result.get(nonExisting).size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void findReturnsCachedSnapshot() throws Exception {
+        // GIVEN:
+        IRI context = getUri(testMetadataFixtures.catalog1());
+        List<Statement> first = metadataRepository.find(context);
+
+        // WHEN:
+        List<Statement> result = metadataRepository.find(context);
+
+        // THEN:
+        assertThat(result, is(sameInstance(first)));
+    }
+
+    @Test
+    public void findAfterSaveReturnsFreshSnapshot() throws Exception {
+        // GIVEN:
+        Model metadata = testMetadataFixtures.catalog1();
+        IRI context = getUri(metadata);
+        assertThat(metadataRepository.find(context).size(), is(equalTo(metadata.size())));
+
+        // WHEN:
+        metadataRepository.save(List.of(s(context, DCTERMS.ALTERNATIVE, l("Alternative"), context)), context);
+
+        // THEN:
+        assertThat(metadataRepository.find(context).size(), is(equalTo(metadata.size() + 1)));
+    }
+
+    @Test
+    public void unitOfWorkCommitsAllChanges() throws Exception {
+        // GIVEN:
+        Model metadata = testMetadataFixtures.catalog1();
+        IRI context = getUri(metadata);
+        ArrayList<Statement> statements = new ArrayList<>(metadata);
+
+        // WHEN:
+        metadataUnitOfWork.execute(() -> {
+            metadataRepository.remove(context);
+            metadataRepository.save(statements, context);
+            return null;
+        });
+
+        // THEN:
+        assertThat(metadataRepository.find(context).size(), is(equalTo(metadata.size())));
+    }
+
+    @Test
+    public void unitOfWorkRollsBackOnError() throws Exception {
+        // GIVEN:
+        Model metadata = testMetadataFixtures.catalog1();
+        IRI context = getUri(metadata);
+        assertThat(metadataRepository.find(context).size(), is(equalTo(metadata.size())));
+
+        // WHEN:
+        assertThrows(IllegalStateException.class, () -> metadataUnitOfWork.execute(() -> {
+            metadataRepository.remove(context);
+            throw new IllegalStateException("Failure in unit of work");
+        }));
+
+        // THEN:
+        assertThat(metadataRepository.find(context).size(), is(equalTo(metadata.size())));
+    }
+
     @Test
     public void checkExistenceWorks() throws Exception {
         // GIVEN:
@@ -0,0 +1,129 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.rdf.repository.common;
+
+import nl.dtls.fairdatapoint.BaseIntegrationTest;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryInterruptedException;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SparqlQueryGuardTest extends BaseIntegrationTest {
+
+    private static final String QUERY = "SELECT ?s ?p ?o WHERE { ?s ?p ?o }";
+
+    @Autowired
+    private SparqlQueryGuard sparqlQueryGuard;
+
+    @Autowired
+    private Repository repository;
+
+    @AfterEach
+    public void cleanup() {
+        ReflectionTestUtils.setField(sparqlQueryGuard, "maxRows", 10000);
+        ReflectionTestUtils.setField(sparqlQueryGuard, "maxExecutionTime", 20);
+        Thread.interrupted();
+    }
+
+    @Test
+    public void evaluateStopsAtMaxRows() {
+        // GIVEN:
+        ReflectionTestUtils.setField(sparqlQueryGuard, "maxRows", 2);
+
+        try (RepositoryConnection conn = repository.getConnection()) {
+            // WHEN:
+            SparqlQueryResult<?> result = sparqlQueryGuard.evaluate(conn.prepareTupleQuery(QUERY), Function.identity());
+
+            // THEN:
+            assertThat(result.getRows().size(), is(equalTo(2)));
+            assertThat(result.isTruncated(), is(equalTo(true)));
+        }
+    }
+
+    @Test
+    public void evaluateFailsWhenCancelled() {
+        // GIVEN: client disconnects while the first row is consumed
+        Function<BindingSet, BindingSet> disconnect = row -> {
+            Thread.currentThread().interrupt();
+            return row;
+        };
+
+        try (RepositoryConnection conn = repository.getConnection()) {
+            // WHEN + THEN:
+            assertThrows(QueryInterruptedException.class,
+                    () -> sparqlQueryGuard.evaluate(conn.prepareTupleQuery(QUERY), disconnect));
+        }
+    }
+
+    @Test
+    public void evaluateFailsWhenCancelledByAnotherThread() {
+        // GIVEN: the request times out while the first row is consumed
+        Thread evaluating = Thread.currentThread();
+        Function<BindingSet, BindingSet> timeout = row -> {
+            Thread canceller = new Thread(() -> sparqlQueryGuard.cancel(evaluating));
+            canceller.start();
+            try {
+                canceller.join();
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return row;
+        };
+
+        try (RepositoryConnection conn = repository.getConnection()) {
+            // WHEN:
+            QueryInterruptedException exception = assertThrows(QueryInterruptedException.class,
+                    () -> sparqlQueryGuard.evaluate(conn.prepareTupleQuery(QUERY), timeout));
+
+            // THEN:
+            assertThat(exception.getMessage(), is(equalTo("Query was cancelled")));
+            assertThat(Thread.currentThread().isInterrupted(), is(equalTo(false)));
+        }
+    }
+
+    @Test
+    public void cancelAfterEvaluationDoesNotInterrupt() {
+        try (RepositoryConnection conn = repository.getConnection()) {
+            // GIVEN:
+            sparqlQueryGuard.evaluate(conn.prepareTupleQuery(QUERY), Function.identity());
+
+            // WHEN:
+            sparqlQueryGuard.cancel(Thread.currentThread());
+
+            // THEN:
+            assertThat(Thread.currentThread().isInterrupted(), is(equalTo(false)));
+        }
+    }
+}
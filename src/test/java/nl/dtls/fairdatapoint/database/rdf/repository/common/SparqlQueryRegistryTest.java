@@ -0,0 +1,104 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.rdf.repository.common;
+
+import nl.dtls.fairdatapoint.BaseIntegrationTest;
+import nl.dtls.fairdatapoint.database.rdf.repository.catalog.CatalogMetadataRepository;
+import nl.dtls.fairdatapoint.service.search.SearchService;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailTupleQuery;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SparqlQueryRegistryTest extends BaseIntegrationTest {
+
+    @Autowired
+    private SparqlQueryRegistry sparqlQueryRegistry;
+
+    @Autowired
+    private Repository repository;
+
+    @Test
+    public void getParsesNamedQuery() {
+        // WHEN:
+        SparqlQuery query = sparqlQueryRegistry.get("getDatasetThemesForCatalog.sparql",
+                CatalogMetadataRepository.class);
+
+        // THEN:
+        assertThat(query.getName(), is(equalTo("database/rdf/repository/catalog/getDatasetThemesForCatalog.sparql")));
+        assertThat(query.isTemplate(), is(equalTo(false)));
+        assertThat(query.getParsedQuery(), is(notNullValue()));
+    }
+
+    @Test
+    public void prepareReusesParsedQuery() {
+        // GIVEN:
+        SparqlQuery query = sparqlQueryRegistry.get("getDatasetThemesForCatalog.sparql",
+                CatalogMetadataRepository.class);
+
+        try (RepositoryConnection conn = repository.getConnection()) {
+            // WHEN:
+            var tupleQuery = query.prepare(conn);
+
+            // THEN:
+            assertThat(tupleQuery, is(instanceOf(SailTupleQuery.class)));
+            assertThat(((SailTupleQuery) tupleQuery).getParsedQuery().getTupleExpr(),
+                    is(notNullValue()));
+        }
+    }
+
+    @Test
+    public void prepareFailsForTemplate() {
+        // GIVEN:
+        SparqlQuery query = sparqlQueryRegistry.get("queryTemplate.sparql", SearchService.class);
+
+        try (RepositoryConnection conn = repository.getConnection()) {
+            // WHEN + THEN:
+            assertThrows(IllegalStateException.class, () -> query.prepare(conn));
+        }
+    }
+
+    @Test
+    public void getKeepsTemplateUnparsed() {
+        // WHEN:
+        SparqlQuery query = sparqlQueryRegistry.get("queryTemplate.sparql", SearchService.class);
+
+        // THEN:
+        assertThat(query.isTemplate(), is(equalTo(true)));
+    }
+
+    @Test
+    public void getFailsForUnknownQuery() {
+        // WHEN + THEN:
+        assertThrows(IllegalArgumentException.class,
+                () -> sparqlQueryRegistry.get("nonExisting.sparql", AbstractMetadataRepository.class));
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.database.search;
+
+import nl.dtls.fairdatapoint.BaseIntegrationTest;
+import nl.dtls.fairdatapoint.entity.search.SearchResult;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.vocabulary.DCAT;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static nl.dtls.fairdatapoint.util.ValueFactoryHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class MetadataTermStatisticsTest extends BaseIntegrationTest {
+
+    private final IRI zebrafish = i("http://example.org/dataset/zebrafish");
+
+    private final IRI medaka = i("http://example.org/dataset/medaka");
+
+    private final IRI fugu = i("http://example.org/dataset/fugu");
+
+    @Autowired
+    private MetadataTermStatistics termStatistics;
+
+    @AfterEach
+    public void cleanup() {
+        termStatistics.remove(zebrafish);
+        termStatistics.remove(medaka);
+        termStatistics.remove(fugu);
+    }
+
+    @Test
+    public void scoreTfidfPrefersFrequentTerm() {
+        // GIVEN:
+        termStatistics.update(zebrafish, dataset(zebrafish, "Zebrafish embryos", "Zebrafish development"));
+        termStatistics.update(medaka, dataset(medaka, "Medaka embryos", "Zebrafish comparison"));
+
+        // WHEN:
+        Map<String, Double> scores = termStatistics.scoreTfidf(Set.of("zebrafish"));
+
+        // THEN:
+        assertThat(termStatistics.getDocumentFrequency("zebrafish"), is(equalTo(2)));
+        assertThat(scores.get(zebrafish.stringValue()), is(greaterThan(scores.get(medaka.stringValue()))));
+    }
+
+    @Test
+    public void findResultsReturnsMatchingLiterals() {
+        // GIVEN:
+        termStatistics.update(medaka, dataset(medaka, "Medaka embryos", "Zebrafish comparison"));
+
+        // WHEN:
+        List<SearchResult> results = termStatistics.findResults(medaka.stringValue(), Set.of("zebrafish"));
+
+        // THEN:
+        assertThat(results.size(), is(equalTo(1)));
+        assertThat(results.get(0).getType(), is(equalTo(DCAT.DATASET.stringValue())));
+        assertThat(results.get(0).getRelation().getPredicate(), is(equalTo(DCTERMS.DESCRIPTION.stringValue())));
+    }
+
+    @Test
+    public void updateReplacesPreviousTerms() {
+        // GIVEN:
+        termStatistics.update(zebrafish, dataset(zebrafish, "Zebrafish embryos", "Zebrafish development"));
+
+        // WHEN:
+        termStatistics.update(zebrafish, dataset(zebrafish, "Medaka embryos", "Medaka development"));
+
+        // THEN:
+        assertThat(termStatistics.getDocumentFrequency("zebrafish"), is(equalTo(0)));
+        assertThat(termStatistics.getDocumentFrequency("medaka"), is(equalTo(1)));
+    }
+
+    @Test
+    public void scoreTfidfCountsTitleAndDescriptionOnly() {
+        // GIVEN:
+        termStatistics.update(zebrafish, dataset(zebrafish, "Zebrafish embryos", "Zebrafish development"));
+        List<Statement> medakaDataset = new ArrayList<>(dataset(medaka, "Medaka embryos", "Medaka development"));
+        medakaDataset.add(s(medaka, DCTERMS.SUBJECT, l("Zebrafish zebrafish zebrafish zebrafish"), medaka));
+        termStatistics.update(medaka, medakaDataset);
+        termStatistics.update(fugu, dataset(fugu, "Fugu embryos", "Fugu development"));
+
+        // WHEN:
+        Map<String, Double> scores = termStatistics.scoreTfidf(Set.of("zebrafish"));
+
+        // THEN:
+        assertThat(termStatistics.getDocumentFrequency("zebrafish"), is(equalTo(2)));
+        assertThat(scores.get(zebrafish.stringValue()), is(greaterThan(0.0)));
+        assertThat(scores.get(medaka.stringValue()), is(equalTo(0.0)));
+    }
+
+    @Test
+    public void removeKeepsRecordOfOtherGraph() {
+        // GIVEN:
+        termStatistics.update(zebrafish, dataset(zebrafish, "Zebrafish embryos", "Zebrafish development"));
+        termStatistics.update(medaka, List.of(
+                s(zebrafish, RDF.TYPE, DCAT.DATASET, medaka),
+                s(zebrafish, DCTERMS.TITLE, l("Zebrafish mirror"), medaka)
+        ));
+
+        // WHEN:
+        termStatistics.remove(zebrafish);
+
+        // THEN:
+        assertThat(termStatistics.getDocumentFrequency("zebrafish"), is(equalTo(1)));
+        assertThat(termStatistics.getDocumentFrequency("embryos"), is(equalTo(0)));
+        assertThat(termStatistics.findResults(zebrafish.stringValue(), Set.of("mirror")).size(), is(equalTo(1)));
+    }
+
+    private List<Statement> dataset(IRI uri, String title, String description) {
+        return List.of(
+                s(uri, RDF.TYPE, DCAT.DATASET, uri),
+                s(uri, DCTERMS.TITLE, l(title), uri),
+                s(uri, DCTERMS.DESCRIPTION, l(description), uri)
+        );
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * The MIT License
+ * Copyright © 2017 DTL
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package nl.dtls.fairdatapoint.entity.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class MetadataChildIndexTest {
+
+    private static final MetadataChildIndexEntry ALPHA = new MetadataChildIndexEntry("http://fdp/a", "Alpha");
+
+    private static final MetadataChildIndexEntry BETA = new MetadataChildIndexEntry("http://fdp/b", "Beta");
+
+    private static final MetadataChildIndexEntry GAMMA = new MetadataChildIndexEntry("http://fdp/c", "Gamma");
+
+    private final MetadataChildIndex index = new MetadataChildIndex(List.of(ALPHA, GAMMA), List.of(GAMMA));
+
+    @Test
+    public void withChildInsertsInTitleOrder() {
+        MetadataChildIndex updated = index.withChild(BETA, true);
+
+        assertThat(updated.getPage(false, 0, 10), is(equalTo(List.of(ALPHA, BETA, GAMMA))));
+        assertThat(updated.getPage(true, 0, 10), is(equalTo(List.of(BETA, GAMMA))));
+    }
+
+    @Test
+    public void withChildRetitles() {
+        MetadataChildIndexEntry renamed = new MetadataChildIndexEntry(ALPHA.getUri(), "Zeta");
+
+        MetadataChildIndex updated = index.withChild(renamed, false);
+
+        assertThat(updated.getPage(false, 0, 10), is(equalTo(List.of(GAMMA, renamed))));
+        assertThat(updated.getPage(true, 0, 10), is(equalTo(List.of(GAMMA))));
+    }
+
+    @Test
+    public void withoutChildRemovesFromBothViews() {
+        MetadataChildIndex updated = index.withoutChild(GAMMA.getUri());
+
+        assertThat(updated.getPage(false, 0, 10), is(equalTo(List.of(ALPHA))));
+        assertThat(updated.count(true), is(equalTo(0)));
+    }
+
+    @Test
+    public void withPublishedUpdatesPublishedView() {
+        MetadataChildIndex updated = index.withPublished(ALPHA.getUri(), true).withPublished(GAMMA.getUri(), false);
+
+        assertThat(updated.getPage(false, 0, 10), is(equalTo(List.of(ALPHA, GAMMA))));
+        assertThat(updated.getPage(true, 0, 10), is(equalTo(List.of(ALPHA))));
+        assertThat(index.withPublished("http://fdp/unknown", true), is(equalTo(index)));
+    }
+}